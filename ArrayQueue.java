@@ -1,3 +1,13 @@
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /*
  * Author: Khanh Nguyen
  * Course CSC 210 - Spring 2025
@@ -6,35 +16,172 @@
  * 			ArrayQueue is a Queue that uses Java Array as the underlying data structure to keep track of the items.
  * Methods: The basic methods for a Queue is implemented, including dequeue(); enqueue(); peek();isEmpty(); size(); clear() and toString();
  * This class also overrides Java equals(Object) method to accurately compare ArrayQueues.
- * Helper method isFull() to check if the underlying Array is full.
- * Helper method hasEmpty() and normalize() helps make element shifting more efficient.
+ * The underlying Array is used as a circular buffer: head is the index of the front element and the back of the
+ * Queue wraps around to the start of the Array, so no element shifting is ever needed.
+ * The Array length is always a power of two, so wrapping an index is a single mask instead of a modulo.
+ * Helper method grow() enlarges the Array, copying the elements over in order, only when the buffer is full.
+ * Capacity: the Array starts at initialCapacity and is multiplied by growthFactor whenever it is too small.
+ * 			Both are rounded up to a power of two, so with a growthFactor of 2 or less the Array simply doubles.
+ * 			If shrinkThreshold is set, the Array is halved (never below initialCapacity) as soon as fewer than
+ * 			shrinkThreshold x capacity elements are left. Since the threshold is below one half, a halved Array is still
+ * 			less than full, so enqueue/dequeue around one size never makes the Array grow and shrink back and forth.
+ * 			trimToSize() and ensureCapacity() resize the Array explicitly, and clear(true) keeps the current Array.
+ * Iteration: forEach(), iterator(), spliterator() and stream() read the elements without removing them, from the front
+ * 			of the Queue to the back. They read the circular buffer directly, with no boxing and no copy, and the
+ * 			spliterator splits by halving its range of positions, so parallel streams divide the work evenly.
+ * 			The Queue must not be changed while it is being iterated.
+ * Hashing: hashCode() is a SequenceHash of the elements, kept up to date by every enqueue and dequeue, so it is O(1).
+ * 			equals() rejects Queues of a different size or hash right away, and is true for an ArrayQueue, a ListQueue
+ * 			or an UnrolledListQueue holding the same elements in the same order.
+ * Text: toString() and appendTo() write the elements from front to back through iterator(), one at a time,
+ * 			and appendTo() can stop after a given number of elements. toArray() copies them out with copyTo().
+ * Snapshots: snapshot() and the copy constructor are O(1): the copy shares the underlying Array copy-on-write.
+ * 			dequeue() and drainTo() only move head and never write to the Array, and growing or shrinking already moves
+ * 			the elements to a new Array, so the only writes that need a private Array are the enqueues that fit.
+ * 			The first of those on a shared Array copies the elements once (copyTo()), on whichever Queue does it first;
+ * 			the last Queue still using the Array writes to it in place. Taking a snapshot never changes the elements or
+ * 			the Array of the source Queue, and the owner count is atomic, so a snapshot taken under a lock (see
+ * 			BlockingArrayQueue.snapshot()) can then be read and changed by another thread without that lock.
  */
 public class ArrayQueue implements QueueInterface {
 
-	private Integer[] items; 
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private int[] items; 
+	private int head;
 	private int size;
+	private int mask;
+	private final int initialCapacity;
+	private final double growthFactor;
+	private final double shrinkThreshold;
+	// dequeue() shrinks the Array when size drops below this, 0 when shrinking is off
+	private int shrinkBelow;
+	// SequenceHash of the elements, and SequenceHash.BASE to the power of size
+	private int hash;
+	private int power = 1;
+	// the number of ArrayQueues that use items, null while this Queue is the only one
+	private AtomicInteger owners;
 	
 	public ArrayQueue() {
 		/*
 		 * Constructor
-		 * Initialize an empty ArrayQueue object. The underlying Array is set to size 100.
+		 * Initialize an empty ArrayQueue object. The underlying Array is set to size 128,
+		 * the first power of two that fits 100 elements.
+		 */
+		this(128, 2.0, 0);
+	}
+	public ArrayQueue(int initialCapacity) {
+		/*
+		 * Constructor
+		 * Initialize an empty ArrayQueue object with an underlying Array that fits initialCapacity elements, doubled when full.
+		 */
+		this(initialCapacity, 2.0, 0);
+	}
+	public ArrayQueue(int initialCapacity, double growthFactor, double shrinkThreshold) {
+		/*
+		 * Constructor
+		 * Initialize an empty ArrayQueue object.
+		 * Argument initialCapacity -- is the starting size of the underlying Array (rounded up to a power of two),
+		 * 			and the smallest size it shrinks to.
+		 * Argument growthFactor -- is what the size of the Array is multiplied by when it is full, must be above 1.
+		 * Argument shrinkThreshold -- is the occupancy below which the Array is halved, 0 never shrinks, must be below 0.5.
 		 */
-		this.items = new Integer[100];
+		if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("initialCapacity must be between 1 and 2^30");
+		}
+		if (!(growthFactor > 1)) {
+			throw new IllegalArgumentException("growthFactor must be above 1");
+		}
+		if (!(shrinkThreshold >= 0 && shrinkThreshold < 0.5)) {
+			throw new IllegalArgumentException("shrinkThreshold must be at least 0 and below 0.5");
+		}
+		this.initialCapacity=powerOfTwo(initialCapacity);
+		this.growthFactor=growthFactor;
+		this.shrinkThreshold=shrinkThreshold;
+		setItems(new int[this.initialCapacity]);
+		this.head=0;
 		this.size=0;
 	}
 	public ArrayQueue(ArrayQueue old) {
 		/*
-		 * Deep Copy constructor
+		 * Copy constructor
 		 * takes an ArrayQueue as argument and initialize a new ArrayQueue with the same elements as the argument.
-		 * This serves as a method to create a deep copy of an ArrayQueue object.
+		 * The two Queues behave like deep copies of each other, but share the underlying Array copy-on-write,
+		 * so the copy is O(1) and the elements are only copied by the first enqueue on either Queue.
+		 * The elements and the Array of the old Queue are not modified.
 		 */
-		old.normalize();
-		this.items= new Integer[old.items().length];
-		this.size=0;
-		for (int i=0; i<items.length; i++) {
-			if (old.items[i]!=null) {
-			enqueue(old.items[i]);
-			}
+		this.initialCapacity=old.initialCapacity;
+		this.growthFactor=old.growthFactor;
+		this.shrinkThreshold=old.shrinkThreshold;
+		if (old.owners == null) {
+			old.owners = new AtomicInteger(1);
+		}
+		old.owners.incrementAndGet();
+		this.owners=old.owners;
+		this.items=old.items();
+		this.mask=old.mask;
+		this.shrinkBelow=old.shrinkBelow;
+		this.head=old.head;
+		this.size=old.size;
+		this.hash=old.hash;
+		this.power=old.power;
+	}
+
+	public ArrayQueue snapshot() {
+		/*
+		 * snapshot() returns a copy of the Queue in O(1), sharing the underlying Array copy-on-write.
+		 * Same as the copy constructor: either Queue can be changed afterwards without affecting the other.
+		 */
+		return new ArrayQueue(this);
+	}
+
+	private static int powerOfTwo(int n) {
+		/*
+		 * Helper Function
+		 * Returns the smallest power of two that is at least n (n must be between 1 and 2^30).
+		 */
+		return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+	}
+
+	private void setItems(int[] newItems) {
+		/*
+		 * Helper Function
+		 * Replaces the underlying Array, and recomputes the mask and the size below which dequeue() shrinks it.
+		 * If the old Array was shared, this Queue stops counting as one of its owners.
+		 */
+		if (owners != null) {
+			owners.decrementAndGet();
+			owners = null;
+		}
+		this.items=newItems;
+		this.mask=items.length - 1;
+		this.shrinkBelow = items.length > initialCapacity ? (int) (items.length * shrinkThreshold) : 0;
+	}
+
+	public int capacity() {
+		/*
+		 * Returns the size of the underlying Array.
+		 */
+		return items.length;
+	}
+
+	public void ensureCapacity(int minCapacity) {
+		/*
+		 * ensureCapacity() grows the underlying Array, by growthFactor steps, until it can hold minCapacity elements.
+		 * Does nothing if it already can.
+		 */
+		if (minCapacity > items.length) {
+			grow(minCapacity);
+		}
+	}
+
+	public void trimToSize() {
+		/*
+		 * trimToSize() shrinks the underlying Array to the smallest power of two that holds all the elements.
+		 */
+		int newLength = powerOfTwo(Math.max(1, size));
+		if (newLength < items.length) {
+			resize(newLength);
 		}
 	}
 	
@@ -46,90 +193,145 @@ public class ArrayQueue implements QueueInterface {
 		 * If the underlying Array is full, creates a new Array of double the size and copy over all current elements
 		 * then adds the new element.
 		 */
-		if (isEmpty()) {
-			items[0]=value;
-			size+=1;
-			return;
+		if (size == items.length) {
+			grow(size + 1);
+		} else if (owners != null) {
+			unshare();
 		}
-		
-		//check if the back of the Queue is full, but there is empty space at the front.
-		//Artifact of dequeue method not shifting elements
-		
-		if (items[items.length-1]!=null) {
-			normalize();
+		items[(head + size) & mask]=value;
+		size+=1;
+		hash += SequenceHash.term(value) * power;
+		power *= SequenceHash.BASE;
+	}
+
+	@Override
+	public void enqueueAll(int[] src, int off, int len) {
+		/*
+		 * This method adds len elements of src, starting at index off, to the end of the Queue in order.
+		 * The Array grows at most once, and the elements are copied in with at most two System.arraycopy calls:
+		 * one up to the end of the Array and one for the part that wraps around to the start.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		if (size + len > items.length) {
+			grow(size + len);
+		} else if (owners != null && len > 0) {
+			unshare();
 		}
-		
-		if (size == items.length) {
-			Integer[] newItems = new Integer[items.length * 2];  //double Array size; copy elements over
-			for (int i=0; i<items.length; i++) {
-				newItems[i]=items[i];
-			}
-			this.items=newItems;
-		}
-		
-		for (int i=items.length-1; i>=0; i--) {
-			if (items[i]!=null) {
-				items[i+1]=value;
-				size+=1;
-				break;
-			}
+		int tail = (head + size) & mask;
+		int firstRun = Math.min(len, items.length - tail);
+		System.arraycopy(src, off, items, tail, firstRun);
+		System.arraycopy(src, off + firstRun, items, 0, len - firstRun);
+		size+=len;
+		for (int i = off; i < off + len; i++) {
+			hash += SequenceHash.term(src[i]) * power;
+			power *= SequenceHash.BASE;
 		}
+	}
 
-		
+	private void grow(int minCapacity) {
+		/*
+		 * Helper Function
+		 * Creates a new Array, multiplying the size by growthFactor until it can hold minCapacity elements,
+		 * and copies the elements over in Queue order, so the front of the Queue ends up at index 0 of the new Array.
+		 * Only gets called when the current Array is too small.
+		 */
+		if (minCapacity > MAX_CAPACITY) {
+			throw new OutOfMemoryError("ArrayQueue can not hold " + minCapacity + " elements");
+		}
+		long newLength = items.length;
+		while (newLength < minCapacity) {
+			newLength = Math.max(newLength + 1, (long) (newLength * growthFactor));
+		}
+		resize(powerOfTwo((int) Math.min(newLength, MAX_CAPACITY)));
+	}
 
+	private void unshare() {
+		/*
+		 * Helper Function, called before writing to a shared Array.
+		 * Copies the elements to a private Array of the same size, unless every other Queue has already moved
+		 * to its own Array, in which case this Queue simply takes the Array over.
+		 */
+		if (owners.get() == 1) {
+			owners = null;
+		} else {
+			resize(items.length);
+		}
 	}
 
-	private void normalize() {
+	private void resize(int newLength) {
 		/*
 		 * Helper Function
-		 * The way dequeue is implemented for the ArrayQueue class makes it so that everytime dequeue() is called
-		 * the First element is removed from the Queue, leaving an empty position at the front.
-		 * Instead of inefficiently shifting all the elements after every dequeue, this normalize() method does the shifting
-		 * and only gets called when it is necessary to shift:
-		 * 	 When the back of the Queue is full, but there is empty space at the front
-		 * 	 When a deep copy is needed.
-		 * 	 When calling toString()
-		 */
-		if (!hasEmpty()) {
-			return;
-		}
-		int empty=0;
-		int index=0;
-		while (empty<size) {
-			index+=1;
-			if (items[index]!=null) {			// Iterate through the elements until reaches first non-empty index
-				items[empty]=items[index];	// Copy over to first available index, starting at 0
-				empty+=1;
-			}
-		
+		 * Moves the elements, in Queue order, to a new Array of size newLength (a power of two that is at least size).
+		 */
+		int[] newItems = new int[newLength];
+		copyTo(newItems);
+		setItems(newItems);
+		this.head=0;
 	}
-		//removes remaining old elements
-		while (items[empty]!=null) {
-			items[empty]=null;
-			empty+=1;
-		}
+
+	private void shrink() {
+		/*
+		 * Helper Function, called by dequeue() and drainTo() when size drops below shrinkBelow.
+		 * Halves the underlying Array, but never below initialCapacity.
+		 */
+		resize(Math.max(initialCapacity, items.length / 2));
 	}
+
+	private void copyTo(int[] dest) {
+		/*
+		 * Helper Function
+		 * Copies the elements of the Queue, front to back, to the start of dest.
+		 * The elements are stored in at most two runs: from head to the end of the Array,
+		 * and the part that wrapped around to the start of the Array.
+		 */
+		int firstRun = Math.min(size, items.length - head);
+		System.arraycopy(items, head, dest, 0, firstRun);
+		System.arraycopy(items, 0, dest, firstRun, size - firstRun);
+	}
+
 	@Override
 	public int dequeue() {
 		/*
 		 * This method removes the element at the start of the Queue
 		 * Returns the value of the removed element
 		 * If empty Queue, returns -1 and do nothing
-		 * This method does not shift elements after removing.
+		 * This method does not shift elements after removing, it only moves head forward.
 		 */
 		if(isEmpty()) {
 			return -1;
 		}
-		int ret;
-		for (int i=0; i<items.length; i++) {
-			if (items[i]!=null) {
-				ret=items[i];
-				items[i]=null;
-				size-=1;
-				return ret;
-			}
+		int ret=items[head];
+		head=(head + 1) & mask;
+		size-=1;
+		hash = (hash - SequenceHash.term(ret)) * SequenceHash.INVERSE;
+		power *= SequenceHash.INVERSE;
+		if (size < shrinkBelow) {
+			shrink();
 		}
-		return -1;
+		return ret;
+	}
+
+	@Override
+	public int drainTo(int[] dst, int max) {
+		/*
+		 * This method removes up to max elements from the start of the Queue and stores them in order at the start of dst.
+		 * Returns the number of elements removed.
+		 * The elements are copied out with at most two System.arraycopy calls, like enqueueAll().
+		 */
+		int n = Math.max(0, Math.min(Math.min(max, dst.length), size));
+		int firstRun = Math.min(n, items.length - head);
+		System.arraycopy(items, head, dst, 0, firstRun);
+		System.arraycopy(items, 0, dst, firstRun, n - firstRun);
+		head=(head + n) & mask;
+		size-=n;
+		for (int i = 0; i < n; i++) {
+			hash = (hash - SequenceHash.term(dst[i])) * SequenceHash.INVERSE;
+			power *= SequenceHash.INVERSE;
+		}
+		while (size < shrinkBelow) {
+			shrink();
+		}
+		return n;
 	}
 
 	@Override
@@ -143,19 +345,14 @@ public class ArrayQueue implements QueueInterface {
 		if(isEmpty()) {
 			return -1;
 		}
-		for (int i=0; i<items.length; i++) {
-			if (items[i]!=null) {
-				return items[i];
-			}
-		}
-		return -1;
+		return items[head];
 	}
-	private boolean hasEmpty() {
+
+	private int get(int i) {
 		/*
-		 * Helper function to check if the front of the Queue has empty spots.
-		 * is only called by normalize()
+		 * Helper function that returns the i-th element of the Queue, counting from the front.
 		 */
-		return items[0]==null;
+		return items[(head + i) & mask];
 	}
 	
 	@Override
@@ -181,9 +378,23 @@ public class ArrayQueue implements QueueInterface {
 		/*
 		 * clear() clears all element from the Queue.
 		 * Consequently, also set the field size to 0
+		 * The underlying Array goes back to initialCapacity.
+		 */
+		clear(false);
+	}
+
+	public void clear(boolean keepBuffer) {
+		/*
+		 * clear() clears all element from the Queue.
+		 * Argument keepBuffer -- if true, the current underlying Array is kept, so refilling the Queue does not allocate.
 		 */
-		this.items= new Integer[100];
+		if (!keepBuffer) {
+			setItems(new int[initialCapacity]);
+		}
+		this.head=0;
 		this.size=0;
+		this.hash=0;
+		this.power=1;
 	}
 	
 	public String toString() {
@@ -191,46 +402,190 @@ public class ArrayQueue implements QueueInterface {
 		 * This method returns the String representation of the Queue
 		 * The format is similar to how an Array is represented in String.
 		 */
-		normalize();
-		if (isEmpty()) {
-			return "{}";
+		return ElementFormat.toString(iterator());
+	}
+
+	@Override
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() writes at most limit elements to out, from front to back, in the toString() format.
+		 * The elements are read from the circular buffer in place, so nothing is copied first.
+		 */
+		ElementFormat.appendTo(out, iterator(), limit);
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from front to back, the order dequeue() would return them.
+		 */
+		int[] ret = new int[size];
+		copyTo(ret);
+		return ret;
+	}
+
+	public void forEach(IntConsumer action) {
+		/*
+		 * forEach() calls action on every element, from the front of the Queue to the back.
+		 * The elements are visited in the same two runs as copyTo(), so the loops need no mask.
+		 * This method does not alter the Queue in any way.
+		 */
+		Objects.requireNonNull(action);
+		int firstEnd = Math.min(head + size, items.length);
+		for (int i = head; i < firstEnd; i++) {
+			action.accept(items[i]);
 		}
-		String ret="{";
-		for (int i=0; i<size(); i++) {
-			ret+= String.valueOf(items[i]) + ",";
+		int secondEnd = size - (firstEnd - head);
+		for (int i = 0; i < secondEnd; i++) {
+			action.accept(items[i]);
 		}
-		ret=ret.substring(0,ret.length()-1);
-		ret+="}";
-		return ret;
 	}
-	private Integer[] items() {
+
+	public PrimitiveIterator.OfInt iterator() {
+		/*
+		 * iterator() returns an iterator over the elements, from the front of the Queue to the back.
+		 */
+		return new PrimitiveIterator.OfInt() {
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+
+			@Override
+			public int nextInt() {
+				if (index >= size) {
+					throw new NoSuchElementException();
+				}
+				index += 1;
+				return get(index - 1);
+			}
+		};
+	}
+
+	public Spliterator.OfInt spliterator() {
+		/*
+		 * spliterator() returns a Spliterator over the elements, from the front of the Queue to the back.
+		 */
+		return new Elements(items, head, 0, size);
+	}
+
+	public IntStream stream() {
+		/*
+		 * stream() returns an IntStream of the elements, from the front of the Queue to the back.
+		 * Call parallel() on it to run it on several threads.
+		 */
+		return StreamSupport.intStream(spliterator(), false);
+	}
+
+	private static final class Elements implements Spliterator.OfInt {
+		/*
+		 * Spliterator over the Queue positions from index to end - 1, position i being items[(head + i) & mask].
+		 * trySplit() hands out the first half of the positions.
+		 */
+		private final int[] items;
+		private final int head;
+		private int index;
+		private final int end;
+
+		Elements(int[] items, int head, int index, int end) {
+			this.items = items;
+			this.head = head;
+			this.index = index;
+			this.end = end;
+		}
+
+		@Override
+		public boolean tryAdvance(IntConsumer action) {
+			Objects.requireNonNull(action);
+			if (index >= end) {
+				return false;
+			}
+			action.accept(items[(head + index) & (items.length - 1)]);
+			index += 1;
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(IntConsumer action) {
+			Objects.requireNonNull(action);
+			int mask = items.length - 1;
+			int i = index;
+			index = end;
+			for (; i < end; i++) {
+				action.accept(items[(head + i) & mask]);
+			}
+		}
+
+		@Override
+		public Spliterator.OfInt trySplit() {
+			int mid = (index + end) >>> 1;
+			if (mid <= index) {
+				return null;
+			}
+			Elements prefix = new Elements(items, head, index, mid);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return end - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL;
+		}
+	}
+
+	private int[] items() {
 		/*
 		 * Getter method for the underlying Array. 
-		 * It is used in the equals method when type casting.
+		 * It is used in the copy constructor when type casting.
 		 */
 		return items;
 	}
 	@Override
 	public boolean equals(Object q2) {
 		/*
-		 * This method overrides Java equals(Object) method to accurately compares 2 ArrayQueue.
-		 * If the argument is not an instance of ArrayQueue, returns false.
+		 * This method overrides Java equals(Object) method to accurately compares 2 Queues.
+		 * If the argument is not an instance of ArrayQueue, ListQueue or UnrolledListQueue, returns false.
 		 *
 		 * If both Queue has all the same elements in the same order, returns true.
 		 * Returns false otherwise
+		 * Queues of different sizes or hashes are rejected without looking at any element.
 		 */
 		if (q2 instanceof ArrayQueue) {
-		if (size()!= ((ArrayQueue) q2).size()) {
+		ArrayQueue other = (ArrayQueue) q2;
+		if (size()!= other.size() || hash != other.hash) {
 			return false;
 		}
 		for (int i=0; i<size(); i++) {
-			if (!((ArrayQueue) q2).items()[i].equals(items[i])) {
+			if (other.get(i) != get(i)) {
 				return false;
 			}
 		}
 		return true;
 		}
+		if (q2 instanceof ListQueue) {
+			ListQueue other = (ListQueue) q2;
+			return SequenceHash.sameElements(size, hash, iterator(), other.size(), other.hashCode(), other.iterator());
+		}
+		if (q2 instanceof UnrolledListQueue) {
+			UnrolledListQueue other = (UnrolledListQueue) q2;
+			return SequenceHash.sameElements(size, hash, iterator(), other.size(), other.hashCode(), other.iterator());
+		}
 		return false;
 	}
 
+	@Override
+	public int hashCode() {
+		/*
+		 * hashCode() returns the SequenceHash of the elements, from front to back. It is O(1).
+		 */
+		return hash;
+	}
+
 }
@@ -1,3 +1,14 @@
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /*
  * Author: Khanh Nguyen
  * File: ArrayStack.java
@@ -6,17 +17,74 @@
  * Methods: The basic methods for a Stack is implemented, including pop(); push(); peek();isEmpty(); size(); clear() and toString();
  * This class also overrides Java equals(Object) method to accurately compare ArrayStacks.
  * Helper method isFull() to check if the underlying Array is full.
+ * The Stack keeps the elements in a primitive int Array, with the field top pointing at the next free index,
+ * so every operation works directly on that index instead of scanning for empty spots.
+ * Capacity: the Array starts at initialCapacity and is multiplied by growthFactor whenever it is too small.
+ * 			If shrinkThreshold is set, the Array is halved (never below initialCapacity) as soon as fewer than
+ * 			shrinkThreshold x capacity elements are left. Since the threshold is below one half, a halved Array is still
+ * 			less than full, so push/pop around one size never makes the Array grow and shrink back and forth.
+ * 			trimToSize() and ensureCapacity() resize the Array explicitly, and clear(true) keeps the current Array.
+ * Iteration: forEach(), iterator(), spliterator() and stream() read the elements without removing them, from the top
+ * 			of the Stack to the bottom (the order pop() would return them). They read the Array directly, with no boxing
+ * 			and no copy, and the spliterator splits by halving its index range, so parallel streams divide the work evenly.
+ * 			The Stack must not be changed while it is being iterated.
+ * Hashing: hashCode() is a SequenceHash of the elements, kept up to date by every push and pop, so it is O(1).
+ * 			equals() rejects Stacks of a different size or hash right away, and is true for an ArrayStack, a ListStack
+ * 			or a VersionedStack holding the same elements in the same order.
+ * Text: toString() and appendTo() write the elements from bottom to top straight from the Array, one at a time,
+ * 			and appendTo() can stop after a given number of elements. toArray() copies them out from top to bottom.
  */
 public class ArrayStack implements StackInterface{
 
-	private Integer[] items;
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	private int[] items;
+	private int top;
+	private final int initialCapacity;
+	private final double growthFactor;
+	private final double shrinkThreshold;
+	// pop() shrinks the Array when top drops below this, 0 when shrinking is off
+	private int shrinkBelow;
+	// SequenceHash of the elements, and SequenceHash.BASE to the power of top
+	private int hash;
+	private int power = 1;
 	
 	public ArrayStack() {
 		/*
 		 * Constructor
 		 * Initialize an empty ArrayStack object. The underlying Array is set to size 100.
 		 */
-		this.items=new Integer[100];
+		this(100, 2.0, 0);
+	}
+	public ArrayStack(int initialCapacity) {
+		/*
+		 * Constructor
+		 * Initialize an empty ArrayStack object with an underlying Array of size initialCapacity, doubled when full.
+		 */
+		this(initialCapacity, 2.0, 0);
+	}
+	public ArrayStack(int initialCapacity, double growthFactor, double shrinkThreshold) {
+		/*
+		 * Constructor
+		 * Initialize an empty ArrayStack object.
+		 * Argument initialCapacity -- is the starting size of the underlying Array, and the smallest size it shrinks to.
+		 * Argument growthFactor -- is what the size of the Array is multiplied by when it is full, must be above 1.
+		 * Argument shrinkThreshold -- is the occupancy below which the Array is halved, 0 never shrinks, must be below 0.5.
+		 */
+		if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("initialCapacity out of range");
+		}
+		if (!(growthFactor > 1)) {
+			throw new IllegalArgumentException("growthFactor must be above 1");
+		}
+		if (!(shrinkThreshold >= 0 && shrinkThreshold < 0.5)) {
+			throw new IllegalArgumentException("shrinkThreshold must be at least 0 and below 0.5");
+		}
+		this.initialCapacity=initialCapacity;
+		this.growthFactor=growthFactor;
+		this.shrinkThreshold=shrinkThreshold;
+		setItems(new int[initialCapacity]);
+		this.top=0;
 	}
 	public ArrayStack(ArrayStack old) {
 		/*
@@ -24,25 +92,55 @@ public class ArrayStack implements StackInterface{
 		 * takes an ArraySTack as argument and initialize a new ArrayStack with the same elements as the argument.
 		 * This serves as a method to create a deep copy of an ArrayStack object.
 		 */
-		this.items= new Integer[old.items().length];
-		for (int i=0; i<items.length; i++) {
-			if (old.items[i]!=null) {
-			push(old.items[i]);
-			}
+		this.initialCapacity=old.initialCapacity;
+		this.growthFactor=old.growthFactor;
+		this.shrinkThreshold=old.shrinkThreshold;
+		setItems(new int[old.items().length]);
+		System.arraycopy(old.items(), 0, items, 0, old.top);
+		this.top=old.top;
+		this.hash=old.hash;
+		this.power=old.power;
+	}
+
+	private void setItems(int[] newItems) {
+		/*
+		 * Helper method
+		 * Replaces the underlying Array and recomputes the size below which pop() shrinks it.
+		 */
+		this.items=newItems;
+		this.shrinkBelow = items.length > initialCapacity ? (int) (items.length * shrinkThreshold) : 0;
+	}
+
+	public int capacity() {
+		/*
+		 * Returns the size of the underlying Array.
+		 */
+		return items.length;
+	}
+
+	public void ensureCapacity(int minCapacity) {
+		/*
+		 * ensureCapacity() grows the underlying Array, by growthFactor steps, until it can hold minCapacity elements.
+		 * Does nothing if it already can.
+		 */
+		if (minCapacity > items.length) {
+			grow(minCapacity);
 		}
 	}
+
+	public void trimToSize() {
+		/*
+		 * trimToSize() shrinks the underlying Array to exactly the number of elements (at least 1).
+		 */
+		resize(Math.max(1, top));
+	}
 	
 	public Boolean isFull() {
 		/*
 		 * Helper method
 		 * returns true if the underlying Array is full, return false otherwise. 
 		 */
-		for (Integer i : items) {
-			if (i == null) {
-				return false;
-			}
-		}
-		return true;
+		return top == items.length;
 	}
 	
 	@Override
@@ -54,19 +152,64 @@ public class ArrayStack implements StackInterface{
 		 * over, and push the new element to the Stack.
 		 * returns nothing.
 		 */
-		if (isFull()) {
-			Integer[] newItems = new Integer[items.length * 2];
-			for (int i=0; i<items.length; i++) {
-				newItems[i]=items[i];
-			}
-			this.items=newItems;
+		if (top == items.length) {
+			grow(top + 1);
 		}
-		
-		for (int i=0; i<items.length; i++) {
-			if (items[i]==null) {
-				items[i] = value;
-				return;
-			}
+		items[top]=value;
+		top+=1;
+		hash += SequenceHash.term(value) * power;
+		power *= SequenceHash.BASE;
+	}
+
+	private void grow(int minCapacity) {
+		/*
+		 * Helper method
+		 * Multiplies the size of the underlying Array by growthFactor until it can hold minCapacity elements,
+		 * then copies all the current elements over in one go.
+		 */
+		if (minCapacity > MAX_CAPACITY) {
+			throw new OutOfMemoryError("ArrayStack can not hold " + minCapacity + " elements");
+		}
+		long newLength = items.length;
+		while (newLength < minCapacity) {
+			newLength = Math.max(newLength + 1, (long) (newLength * growthFactor));
+		}
+		resize((int) Math.min(newLength, MAX_CAPACITY));
+	}
+
+	private void resize(int newLength) {
+		/*
+		 * Helper method
+		 * Moves the elements to a new underlying Array of size newLength, which must be at least top.
+		 */
+		int[] newItems = new int[newLength];
+		System.arraycopy(items, 0, newItems, 0, top);
+		setItems(newItems);
+	}
+
+	private void shrink() {
+		/*
+		 * Helper method, called by pop() and popInto() when top drops below shrinkBelow.
+		 * Halves the underlying Array, but never below initialCapacity.
+		 */
+		resize(Math.max(initialCapacity, items.length / 2));
+	}
+
+	@Override
+	public void pushAll(int[] src, int off, int len) {
+		/*
+		 * pushAll() pushes len elements of src, starting at index off, so src[off + len - 1] ends up on top.
+		 * The Array grows at most once, and the elements are copied in with a single System.arraycopy.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		if (top + len > items.length) {
+			grow(top + len);
+		}
+		System.arraycopy(src, off, items, top, len);
+		top+=len;
+		for (int i = off; i < off + len; i++) {
+			hash += SequenceHash.term(src[i]) * power;
+			power *= SequenceHash.BASE;
 		}
 	}
 
@@ -81,19 +224,35 @@ public class ArrayStack implements StackInterface{
 		if (isEmpty()) {
 			return -1;
 		}
-		//iterate through the array until reaches an empty spot, the previous position will be the top
-		for (int i = 0; i < items.length; i++) {
-			if (items[i] == null) {
-				int ret = items[i - 1];
-				items[i - 1] = null;
-				return ret;
-			}
+		top-=1;
+		int ret = items[top];
+		power *= SequenceHash.INVERSE;
+		hash -= SequenceHash.term(ret) * power;
+		if (top < shrinkBelow) {
+			shrink();
 		}
-		// if Stack is full, there is no empty spot. Removes element at last index
-		int ret = items [items.length -1];
-		items [ items.length -1]= null;
 		return ret;
 	}
+
+	@Override
+	public int popInto(int[] dst, int max) {
+		/*
+		 * popInto() pops up to max elements into dst, so dst[0] is the former top of the Stack.
+		 * Returns the number of elements removed.
+		 * The top index moves once for the whole batch.
+		 */
+		int n = Math.max(0, Math.min(Math.min(max, dst.length), top));
+		for (int i = 0; i < n; i++) {
+			dst[i] = items[top - 1 - i];
+			power *= SequenceHash.INVERSE;
+			hash -= SequenceHash.term(dst[i]) * power;
+		}
+		top-=n;
+		while (top < shrinkBelow) {
+			shrink();
+		}
+		return n;
+	}
 	
 	@Override
 	public int peek() {
@@ -103,21 +262,10 @@ public class ArrayStack implements StackInterface{
 		 * This method does not alter the Stack in any way.
 		 * Takes no argument
 		 */
-		// TODO Auto-generated method stub
 		if (isEmpty()) {
 			return -1;
 		}
-		
-		//Same logic as pop()
-		
-		for (int i = 0; i < size(); i++) {
-			if (items[i] == null) {
-				int ret = items[i - 1];
-				return ret;
-			}
-		}
-		int ret = items [size() -1];
-		return ret;
+		return items[top-1];
 	}
 
 	@Override
@@ -127,10 +275,7 @@ public class ArrayStack implements StackInterface{
 		 * returns false otherwise
 		 * Takes no argument
 		 */
-		if (items[0]==null) {
-			return true;
-		}
-		return false;
+		return top==0;
 	}
 
 	@Override
@@ -139,24 +284,29 @@ public class ArrayStack implements StackInterface{
 		 * size() returns the number of elements in the Stack
 		 * if empty Stack, returns 0.
 		 */
-		if(isEmpty()) {
-			return 0;
-		}
-		for (int i=0; i< items.length; i++) {
-			if (items[i]==null) {
-				return i;
-			}
-		}
-		return items.length;
+		return top;
 	}
 
 	@Override
 	public void clear() {
 		/*
 		 * clear() clears all element from the Stack.
+		 * The underlying Array goes back to initialCapacity.
+		 */
+		clear(false);
+	}
+
+	public void clear(boolean keepBuffer) {
+		/*
+		 * clear() clears all element from the Stack.
+		 * Argument keepBuffer -- if true, the current underlying Array is kept, so refilling the Stack does not allocate.
 		 */
-		// TODO Auto-generated method stub
-		this.items = new Integer[100];
+		if (!keepBuffer) {
+			setItems(new int[initialCapacity]);
+		}
+		this.top=0;
+		this.hash=0;
+		this.power=1;
 	}
 	
 	public String toString() {
@@ -164,18 +314,145 @@ public class ArrayStack implements StackInterface{
 		 * toString() returns the String representation of the Stack
 		 * The format is similar to how an Array is represented in String.
 		 */
-		if (isEmpty()) {
-			return "{}";
-		}
-		String ret="{";
-		for (int i=0; i<size(); i++) {
-			ret+= String.valueOf(items[i]) + ",";
+		return ElementFormat.toString(Arrays.stream(items, 0, top).iterator());
+	}
+
+	@Override
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() writes at most limit elements to out, from bottom to top, in the toString() format.
+		 * The elements are read from the Array in place, so nothing is copied first.
+		 */
+		ElementFormat.appendTo(out, Arrays.stream(items, 0, top).iterator(), limit);
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from top to bottom, the order pop() would return them.
+		 */
+		int[] ret = new int[top];
+		for (int i = 0; i < top; i++) {
+			ret[i] = items[top - 1 - i];
 		}
-		ret=ret.substring(0,ret.length()-1);
-		ret+="}";
 		return ret;
 	}
-	private Integer[] items() {
+	void writeTo(IntBuffer dst) {
+		/*
+		 * Copies the elements, from bottom to top, into dst with one bulk put.
+		 * Used by DurableArrayStack to write snapshots.
+		 */
+		dst.put(items, 0, top);
+	}
+	public void forEach(IntConsumer action) {
+		/*
+		 * forEach() calls action on every element, from the top of the Stack to the bottom.
+		 * This method does not alter the Stack in any way.
+		 */
+		Objects.requireNonNull(action);
+		for (int i = top - 1; i >= 0; i--) {
+			action.accept(items[i]);
+		}
+	}
+
+	public PrimitiveIterator.OfInt iterator() {
+		/*
+		 * iterator() returns an iterator over the elements, from the top of the Stack to the bottom.
+		 */
+		return new PrimitiveIterator.OfInt() {
+			private int index = top;
+
+			@Override
+			public boolean hasNext() {
+				return index > 0;
+			}
+
+			@Override
+			public int nextInt() {
+				if (index <= 0) {
+					throw new NoSuchElementException();
+				}
+				index -= 1;
+				return items[index];
+			}
+		};
+	}
+
+	public Spliterator.OfInt spliterator() {
+		/*
+		 * spliterator() returns a Spliterator over the elements, from the top of the Stack to the bottom.
+		 */
+		return new Elements(items, 0, top);
+	}
+
+	public IntStream stream() {
+		/*
+		 * stream() returns an IntStream of the elements, from the top of the Stack to the bottom.
+		 * Call parallel() on it to run it on several threads.
+		 */
+		return StreamSupport.intStream(spliterator(), false);
+	}
+
+	private static final class Elements implements Spliterator.OfInt {
+		/*
+		 * Spliterator over items[low] to items[high - 1], walked from high - 1 down to low.
+		 * trySplit() hands out the upper half, which holds the elements that come first.
+		 */
+		private final int[] items;
+		private final int low;
+		private int high;
+
+		Elements(int[] items, int low, int high) {
+			this.items = items;
+			this.low = low;
+			this.high = high;
+		}
+
+		@Override
+		public boolean tryAdvance(IntConsumer action) {
+			Objects.requireNonNull(action);
+			if (high <= low) {
+				return false;
+			}
+			high -= 1;
+			action.accept(items[high]);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(IntConsumer action) {
+			Objects.requireNonNull(action);
+			int i = high;
+			high = low;
+			while (i > low) {
+				i -= 1;
+				action.accept(items[i]);
+			}
+		}
+
+		@Override
+		public Spliterator.OfInt trySplit() {
+			int mid = (low + high) >>> 1;
+			if (mid <= low) {
+				return null;
+			}
+			Elements prefix = new Elements(items, mid, high);
+			high = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return high - low;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL;
+		}
+	}
+
+	private int[] items() {
 		/*
 		 * Getter method for the underlying Array. 
 		 * It is used in the equals method when type casting.
@@ -185,26 +462,44 @@ public class ArrayStack implements StackInterface{
 	@Override
 	public boolean equals(Object stack2) {
 		/*
-		 * equals() overrides Java equals(Object) method to accurately compares 2 ArrayStack.
-		 * If the argument is not an instance of ArrayStack, returns false.
+		 * equals() overrides Java equals(Object) method to accurately compares 2 Stacks.
+		 * If the argument is not an instance of ArrayStack, ListStack or VersionedStack, returns false.
 		 *
 		 * If both Stack has all the same elements in the same order, returns true.
 		 * Returns false otherwise
+		 * Stacks of different sizes or hashes are rejected without looking at any element.
 		 */
 		if (stack2 instanceof ArrayStack) {
-		// check if size matches
-		if (size()!= ((ArrayStack) stack2).size()) {
+		ArrayStack other = (ArrayStack) stack2;
+		// check if size and hash match
+		if (size()!= other.size() || hash != other.hash) {
 			return false;
 		}
 		//check if elements matches
 		for (int i=0; i<size(); i++) {
-			if (!((ArrayStack) stack2).items()[i].equals(items[i])) {
+			if (other.items()[i] != items[i]) {
 				return false;
 			}
 		}
 		return true;
 		}
+		if (stack2 instanceof ListStack) {
+			ListStack other = (ListStack) stack2;
+			return SequenceHash.sameElements(size(), hash, iterator(), other.size(), other.hashCode(), other.iterator());
+		}
+		if (stack2 instanceof VersionedStack) {
+			VersionedStack other = (VersionedStack) stack2;
+			return SequenceHash.sameElements(size(), hash, iterator(), other.size(), other.hashCode(), other.iterator());
+		}
 		return false;
 	}
 
+	@Override
+	public int hashCode() {
+		/*
+		 * hashCode() returns the SequenceHash of the elements, from bottom to top. It is O(1).
+		 */
+		return hash;
+	}
+
 }
@@ -0,0 +1,580 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/*
+ * Author: Khanh Nguyen
+ * File: Benchmark.java
+ * Purpose: This file implements a small benchmark harness that compares every StackInterface and QueueInterface
+ * 			implementation in the project, which is the point of the project (Array vs LinkedList).
+ * 			It needs no library: each benchmark is warmed up, then timed with System.nanoTime(), and the bytes allocated
+ * 			and the GC count/time spent during the measured runs are read from the JVM management beans.
+ * Benchmarks: steady     -- push+pop (enqueue+dequeue) pairs on a structure that already holds size elements,
+ * 			                 timed together, so ns/op is the average cost of one operation at that size
+ * 			   latency    -- the same pairs, but every operation is timed on its own into a LatencyHistogram,
+ * 			                 and the line shows its p50, p99, p99.9 and max instead of the averages.
+ * 			                 Every sample includes one System.nanoTime() call; latency/System.nanoTime shows that cost
+ * 			   throughput -- fill an empty structure with size elements, then empty it again
+ * 			   batch      -- like throughput, but with pushAll/popInto (enqueueAll/drainTo) in blocks of BATCH elements
+ * 			   mixed      -- size operations, 60% push/enqueue and 40% pop/dequeue, in a fixed random order
+ * 			   copy       -- the copy constructor on a structure of size elements
+ * 			   equals     -- equals() between two structures of size equal elements
+ * 			   toString   -- toString() on a structure of size elements (only up to TO_STRING_MAX_SIZE)
+ * 			Priority queues (PRIORITY_QUEUES) run these instead, with random keys:
+ * 			   pq-fill    -- enqueue size random keys one by one, then dequeue them all
+ * 			   pq-heapify -- enqueueAll() of size random keys into an empty queue, then dequeue them all
+ * 			   pq-hold    -- size times, dequeue the smallest key and enqueue it again plus a random delay,
+ * 			                 on a queue of size keys (how a scheduler uses it)
+ * Usage: java Benchmark [filter] [maxSize]
+ * 			filter  -- only runs benchmarks whose "benchmark/implementation" name contains this text, "all" runs everything
+ * 			maxSize -- the largest size to run, default 10000000
+ * New implementations are added to the STACKS, QUEUES or PRIORITY_QUEUES list in registerImplementations().
+ */
+public class Benchmark {
+
+	private static final int[] SIZES = {10, 1_000, 100_000, 1_000_000, 10_000_000};
+	private static final int TO_STRING_MAX_SIZE = 10_000;
+	private static final int BATCH = 1024;
+	private static final int WARMUP_RUNS = 3;
+	private static final int MEASURED_RUNS = 5;
+	private static final long MIN_OPS_PER_RUN = 1_000_000;
+	// push+pop pairs per latency run, each operation timed on its own
+	private static final int LATENCY_PAIRS = 200_000;
+
+	private static final List<Impl<StackInterface>> STACKS = new ArrayList<>();
+	private static final List<Impl<QueueInterface>> QUEUES = new ArrayList<>();
+	private static final List<Impl<QueueInterface>> PRIORITY_QUEUES = new ArrayList<>();
+
+	// results are folded into this field so the JIT cannot remove the measured work
+	private static volatile long sink;
+
+	static class Impl<T> {
+		/*
+		 * One implementation under test: its name, how to create an empty instance,
+		 * and how to call its copy constructor.
+		 */
+		final String name;
+		final Supplier<T> create;
+		final UnaryOperator<T> copy;
+
+		Impl(String name, Supplier<T> create, UnaryOperator<T> copy) {
+			this.name = name;
+			this.create = create;
+			this.copy = copy;
+		}
+	}
+
+	interface Run {
+		/*
+		 * One timed run of a benchmark. Returns the number of operations it performed.
+		 */
+		long run();
+	}
+
+	interface LatencyRun {
+		/*
+		 * One run of a latency benchmark, which times every operation itself and records it in histogram.
+		 */
+		void run(LatencyHistogram histogram);
+	}
+
+	private static void registerImplementations() {
+		/*
+		 * Lists every implementation the benchmarks run against.
+		 */
+		STACKS.add(new Impl<>("ArrayStack", ArrayStack::new, s -> new ArrayStack((ArrayStack) s)));
+		STACKS.add(new Impl<>("ListStack", ListStack::new, s -> new ListStack((ListStack) s)));
+		STACKS.add(new Impl<>("VersionedStack", VersionedStack::new, s -> new VersionedStack((VersionedStack) s)));
+		QUEUES.add(new Impl<>("ArrayQueue", ArrayQueue::new, q -> new ArrayQueue((ArrayQueue) q)));
+		QUEUES.add(new Impl<>("ListQueue", ListQueue::new, q -> new ListQueue((ListQueue) q)));
+		QUEUES.add(new Impl<>("UnrolledListQueue", UnrolledListQueue::new, q -> new UnrolledListQueue((UnrolledListQueue) q)));
+		// IntArrayDeque is both a Stack and a Queue, the names tell the two uses apart
+		STACKS.add(new Impl<>("IntArrayDeque-stack", IntArrayDeque::new, s -> new IntArrayDeque((IntArrayDeque) s)));
+		QUEUES.add(new Impl<>("IntArrayDeque-queue", IntArrayDeque::new, q -> new IntArrayDeque((IntArrayDeque) q)));
+		PRIORITY_QUEUES.add(new Impl<>("IntPriorityQueue-2ary", () -> new IntPriorityQueue(2), q -> new IntPriorityQueue((IntPriorityQueue) q)));
+		PRIORITY_QUEUES.add(new Impl<>("IntPriorityQueue-4ary", () -> new IntPriorityQueue(4), q -> new IntPriorityQueue((IntPriorityQueue) q)));
+		PRIORITY_QUEUES.add(new Impl<>("IntPriorityQueue-8ary", () -> new IntPriorityQueue(8), q -> new IntPriorityQueue((IntPriorityQueue) q)));
+		PRIORITY_QUEUES.add(new Impl<>("PriorityQueue<Integer>", BoxedPriorityQueue::new, q -> new BoxedPriorityQueue((BoxedPriorityQueue) q)));
+	}
+
+	public static void main(String[] args) {
+		String filter = args.length > 0 && !args[0].equals("all") ? args[0] : "";
+		int maxSize = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+		registerImplementations();
+
+		System.out.printf("%-32s %10s %14s %16s %14s %8s %8s%n",
+				"benchmark", "size", "ns/op", "ops/s", "bytes/op", "gc", "gc ms");
+		measureLatency("latency/System.nanoTime", 0, filter, histogram -> {
+			for (int i = 0; i < 2 * LATENCY_PAIRS; i++) {
+				long start = System.nanoTime();
+				histogram.record(System.nanoTime() - start);
+			}
+		});
+		for (int size : SIZES) {
+			if (size > maxSize) {
+				continue;
+			}
+			for (Impl<StackInterface> impl : STACKS) {
+				stackBenchmarks(impl, size, filter);
+			}
+			for (Impl<QueueInterface> impl : QUEUES) {
+				queueBenchmarks(impl, size, filter);
+			}
+			for (Impl<QueueInterface> impl : PRIORITY_QUEUES) {
+				priorityQueueBenchmarks(impl, size, filter);
+			}
+		}
+	}
+
+	private static void stackBenchmarks(Impl<StackInterface> impl, int size, String filter) {
+		/*
+		 * Runs every benchmark on one StackInterface implementation at one size.
+		 */
+		StackInterface full = filled(impl.create.get(), size);
+		boolean[] mixedOps = mixedOps(size);
+
+		measure("steady/" + impl.name, size, filter, () -> {
+			long ops = MIN_OPS_PER_RUN;
+			long acc = 0;
+			for (long i = 0; i < ops; i++) {
+				full.push((int) i);
+				acc += full.pop();
+			}
+			sink += acc;
+			return ops * 2;
+		});
+		measureLatency("latency/" + impl.name, size, filter, histogram -> {
+			long acc = 0;
+			for (int i = 0; i < LATENCY_PAIRS; i++) {
+				long start = System.nanoTime();
+				full.push(i);
+				long middle = System.nanoTime();
+				acc += full.pop();
+				long end = System.nanoTime();
+				histogram.record(middle - start);
+				histogram.record(end - middle);
+			}
+			sink += acc;
+		});
+		measure("throughput/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			long acc = 0;
+			StackInterface s = impl.create.get();
+			do {
+				for (int i = 0; i < size; i++) {
+					s.push(i);
+				}
+				for (int i = 0; i < size; i++) {
+					acc += s.pop();
+				}
+				ops += 2L * size;
+			} while (ops < MIN_OPS_PER_RUN);
+			sink += acc;
+			return ops;
+		});
+		measure("batch/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			long acc = 0;
+			int[] block = new int[BATCH];
+			StackInterface s = impl.create.get();
+			do {
+				for (int i = 0; i < size; i += BATCH) {
+					s.pushAll(block, 0, Math.min(BATCH, size - i));
+				}
+				for (int i = 0; i < size; i += BATCH) {
+					acc += s.popInto(block, BATCH);
+				}
+				ops += 2L * size;
+			} while (ops < MIN_OPS_PER_RUN);
+			sink += acc;
+			return ops;
+		});
+		measure("mixed/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			long acc = 0;
+			do {
+				StackInterface s = impl.create.get();
+				for (int i = 0; i < size; i++) {
+					if (mixedOps[i]) {
+						s.push(i);
+					} else {
+						acc += s.pop();
+					}
+				}
+				ops += size;
+			} while (ops < MIN_OPS_PER_RUN);
+			sink += acc;
+			return ops;
+		});
+		measure("copy/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			do {
+				sink += impl.copy.apply(full).size();
+				ops += 1;
+			} while (ops * size < MIN_OPS_PER_RUN);
+			return ops;
+		});
+		StackInterface other = impl.copy.apply(full);
+		measure("equals/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			do {
+				sink += full.equals(other) ? 1 : 0;
+				ops += 1;
+			} while (ops * size < MIN_OPS_PER_RUN);
+			return ops;
+		});
+		if (size <= TO_STRING_MAX_SIZE) {
+			measure("toString/" + impl.name, size, filter, () -> {
+				sink += full.toString().length();
+				return 1;
+			});
+		}
+	}
+
+	private static void queueBenchmarks(Impl<QueueInterface> impl, int size, String filter) {
+		/*
+		 * Runs every benchmark on one QueueInterface implementation at one size.
+		 */
+		QueueInterface full = filled(impl.create.get(), size);
+		boolean[] mixedOps = mixedOps(size);
+
+		measure("steady/" + impl.name, size, filter, () -> {
+			long ops = MIN_OPS_PER_RUN;
+			long acc = 0;
+			for (long i = 0; i < ops; i++) {
+				full.enqueue((int) i);
+				acc += full.dequeue();
+			}
+			sink += acc;
+			return ops * 2;
+		});
+		measureLatency("latency/" + impl.name, size, filter, histogram -> {
+			long acc = 0;
+			for (int i = 0; i < LATENCY_PAIRS; i++) {
+				long start = System.nanoTime();
+				full.enqueue(i);
+				long middle = System.nanoTime();
+				acc += full.dequeue();
+				long end = System.nanoTime();
+				histogram.record(middle - start);
+				histogram.record(end - middle);
+			}
+			sink += acc;
+		});
+		measure("throughput/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			long acc = 0;
+			QueueInterface q = impl.create.get();
+			do {
+				for (int i = 0; i < size; i++) {
+					q.enqueue(i);
+				}
+				for (int i = 0; i < size; i++) {
+					acc += q.dequeue();
+				}
+				ops += 2L * size;
+			} while (ops < MIN_OPS_PER_RUN);
+			sink += acc;
+			return ops;
+		});
+		measure("batch/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			long acc = 0;
+			int[] block = new int[BATCH];
+			QueueInterface q = impl.create.get();
+			do {
+				for (int i = 0; i < size; i += BATCH) {
+					q.enqueueAll(block, 0, Math.min(BATCH, size - i));
+				}
+				for (int i = 0; i < size; i += BATCH) {
+					acc += q.drainTo(block, BATCH);
+				}
+				ops += 2L * size;
+			} while (ops < MIN_OPS_PER_RUN);
+			sink += acc;
+			return ops;
+		});
+		measure("mixed/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			long acc = 0;
+			do {
+				QueueInterface q = impl.create.get();
+				for (int i = 0; i < size; i++) {
+					if (mixedOps[i]) {
+						q.enqueue(i);
+					} else {
+						acc += q.dequeue();
+					}
+				}
+				ops += size;
+			} while (ops < MIN_OPS_PER_RUN);
+			sink += acc;
+			return ops;
+		});
+		measure("copy/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			do {
+				sink += impl.copy.apply(full).size();
+				ops += 1;
+			} while (ops * size < MIN_OPS_PER_RUN);
+			return ops;
+		});
+		QueueInterface other = impl.copy.apply(full);
+		measure("equals/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			do {
+				sink += full.equals(other) ? 1 : 0;
+				ops += 1;
+			} while (ops * size < MIN_OPS_PER_RUN);
+			return ops;
+		});
+		if (size <= TO_STRING_MAX_SIZE) {
+			measure("toString/" + impl.name, size, filter, () -> {
+				sink += full.toString().length();
+				return 1;
+			});
+		}
+	}
+
+	private static void priorityQueueBenchmarks(Impl<QueueInterface> impl, int size, String filter) {
+		/*
+		 * Runs the priority queue benchmarks on one implementation at one size.
+		 * Every implementation gets the same random keys.
+		 */
+		int[] keys = new Random(42).ints(size, 0, Integer.MAX_VALUE / 2).toArray();
+		int[] delays = new Random(43).ints(size, 0, 1 << 20).toArray();
+
+		measure("pq-fill/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			long acc = 0;
+			QueueInterface q = impl.create.get();
+			do {
+				for (int i = 0; i < size; i++) {
+					q.enqueue(keys[i]);
+				}
+				for (int i = 0; i < size; i++) {
+					acc += q.dequeue();
+				}
+				ops += 2L * size;
+			} while (ops < MIN_OPS_PER_RUN);
+			sink += acc;
+			return ops;
+		});
+		measure("pq-heapify/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			long acc = 0;
+			QueueInterface q = impl.create.get();
+			do {
+				q.enqueueAll(keys, 0, size);
+				for (int i = 0; i < size; i++) {
+					acc += q.dequeue();
+				}
+				ops += 2L * size;
+			} while (ops < MIN_OPS_PER_RUN);
+			sink += acc;
+			return ops;
+		});
+		QueueInterface held = impl.create.get();
+		held.enqueueAll(keys, 0, size);
+		measure("pq-hold/" + impl.name, size, filter, () -> {
+			long ops = 0;
+			do {
+				for (int i = 0; i < size; i++) {
+					// keys stay below Integer.MAX_VALUE / 2 + delays, so wrapping takes far longer than a run
+					held.enqueue((held.dequeue() + delays[i]) & Integer.MAX_VALUE);
+				}
+				ops += 2L * size;
+			} while (ops < MIN_OPS_PER_RUN);
+			return ops;
+		});
+	}
+
+	private static final class BoxedPriorityQueue implements QueueInterface {
+		/*
+		 * java.util.PriorityQueue<Integer> behind QueueInterface, as the baseline for the priority queue benchmarks.
+		 * enqueueAll() into an empty queue uses the PriorityQueue(Collection) constructor, which heapifies in O(n).
+		 */
+		private PriorityQueue<Integer> queue;
+
+		BoxedPriorityQueue() {
+			this.queue = new PriorityQueue<>();
+		}
+
+		BoxedPriorityQueue(BoxedPriorityQueue old) {
+			this.queue = new PriorityQueue<>(old.queue);
+		}
+
+		@Override
+		public void enqueue(int value) {
+			queue.add(value);
+		}
+
+		@Override
+		public void enqueueAll(int[] src, int off, int len) {
+			List<Integer> boxed = new ArrayList<>(len);
+			for (int i = off; i < off + len; i++) {
+				boxed.add(src[i]);
+			}
+			if (queue.isEmpty()) {
+				queue = new PriorityQueue<>(boxed);
+			} else {
+				queue.addAll(boxed);
+			}
+		}
+
+		@Override
+		public int dequeue() {
+			Integer ret = queue.poll();
+			return ret == null ? -1 : ret;
+		}
+
+		@Override
+		public int peek() {
+			Integer ret = queue.peek();
+			return ret == null ? -1 : ret;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return queue.isEmpty();
+		}
+
+		@Override
+		public int size() {
+			return queue.size();
+		}
+
+		@Override
+		public void clear() {
+			queue.clear();
+		}
+
+		@Override
+		public int[] toArray() {
+			return queue.stream().mapToInt(Integer::intValue).sorted().toArray();
+		}
+	}
+
+	static StackInterface filled(StackInterface s, int size) {
+		/*
+		 * Pushes the values 0 to size-1 onto s and returns it.
+		 */
+		for (int i = 0; i < size; i++) {
+			s.push(i);
+		}
+		return s;
+	}
+
+	static QueueInterface filled(QueueInterface q, int size) {
+		/*
+		 * Enqueues the values 0 to size-1 into q and returns it.
+		 */
+		for (int i = 0; i < size; i++) {
+			q.enqueue(i);
+		}
+		return q;
+	}
+
+	private static boolean[] mixedOps(int size) {
+		/*
+		 * Returns a fixed random sequence of size operations, true for push/enqueue (60%) and false for pop/dequeue.
+		 * The seed is fixed so every implementation runs exactly the same sequence.
+		 */
+		Random random = new Random(42);
+		boolean[] ops = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			ops[i] = random.nextInt(10) < 6;
+		}
+		return ops;
+	}
+
+	static void measure(String name, int size, String filter, Run run) {
+		/*
+		 * Warms up and then times a benchmark, and prints one result line.
+		 * ns/op and ops/s are taken from the fastest measured run; bytes/op, gc count and gc time
+		 * are totals over all measured runs, divided by the total number of operations for bytes/op.
+		 */
+		if (!name.contains(filter)) {
+			return;
+		}
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			run.run();
+		}
+		double nsPerOp = Double.MAX_VALUE;
+		long totalOps = 0;
+		long bytesBefore = allocatedBytes();
+		long gcCountBefore = gcCount();
+		long gcTimeBefore = gcTime();
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			long start = System.nanoTime();
+			long ops = run.run();
+			long nanos = System.nanoTime() - start;
+			totalOps += ops;
+			nsPerOp = Math.min(nsPerOp, (double) nanos / ops);
+		}
+		long bytes = allocatedBytes() - bytesBefore;
+		System.out.printf("%-32s %10d %14.2f %16.0f %14s %8d %8d%n",
+				name, size, nsPerOp, 1e9 / nsPerOp,
+				bytesBefore < 0 ? "n/a" : String.format("%.2f", (double) bytes / totalOps),
+				gcCount() - gcCountBefore, gcTime() - gcTimeBefore);
+	}
+
+	static void measureLatency(String name, int size, String filter, LatencyRun run) {
+		/*
+		 * Warms up and then runs a latency benchmark, and prints one line with the percentiles of every operation
+		 * recorded over all measured runs. Percentiles are the upper bound of their LatencyHistogram bucket.
+		 */
+		if (!name.contains(filter)) {
+			return;
+		}
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			run.run(new LatencyHistogram());
+		}
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			run.run(histogram);
+		}
+		System.out.printf("%-32s %10d   p50 %6d ns   p99 %6d ns   p99.9 %6d ns   max %9d ns%n",
+				name, size, histogram.percentile(50), histogram.percentile(99), histogram.percentile(99.9), histogram.max());
+	}
+
+	private static long allocatedBytes() {
+		/*
+		 * Returns the number of bytes allocated so far by the current thread,
+		 * or -1 if the JVM does not support allocation counting.
+		 */
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	private static long gcCount() {
+		/*
+		 * Returns the total number of garbage collections so far, over all collectors.
+		 */
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	private static long gcTime() {
+		/*
+		 * Returns the total time spent in garbage collection so far, in milliseconds.
+		 */
+		long time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, gc.getCollectionTime());
+		}
+		return time;
+	}
+
+}
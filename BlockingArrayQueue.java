@@ -0,0 +1,341 @@
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Author: Khanh Nguyen
+ * File: BlockingArrayQueue.java
+ * Purpose: This file implement the BlockingArrayQueue Class that implements BlockingQueueInterface.
+ * 			BlockingArrayQueue is a thread-safe, optionally bounded Queue that keeps its elements in an ArrayQueue.
+ * 			Consumers can wait for an element with take() or poll(timeout) instead of polling dequeue() in a loop,
+ * 			and producers can wait for space with put() or offer(timeout) when the Queue is bounded.
+ * 			Every method holds a ReentrantLock, and waiting threads park on the notEmpty/notFull Conditions.
+ * 			Unlike a synchronized block, a ReentrantLock does not pin a virtual thread to its carrier thread,
+ * 			so thousands of virtual-thread consumers can wait on one Queue.
+ * Methods: The basic methods for a Queue is implemented, including dequeue(); enqueue(); peek();isEmpty(); size(); clear() and toString();
+ * 			plus the waiting methods put(); take(); offer(value, timeout, unit) and poll(timeout, unit).
+ * 			enqueue() never waits: on a full Queue it throws IllegalStateException. dequeue() never waits either.
+ * 			snapshot() returns an ArrayQueue copy of the elements for monitoring, in O(1) under the lock.
+ */
+public class BlockingArrayQueue implements BlockingQueueInterface {
+
+	private final ArrayQueue items;
+	private final int capacity;
+	private final ReentrantLock lock;
+	private final Condition notEmpty;
+	private final Condition notFull;
+
+	public BlockingArrayQueue() {
+		/*
+		 * Constructor
+		 * Initialize an empty, unbounded BlockingArrayQueue object.
+		 */
+		this(Integer.MAX_VALUE);
+	}
+
+	public BlockingArrayQueue(int capacity) {
+		/*
+		 * Constructor
+		 * Initialize an empty BlockingArrayQueue object.
+		 * Argument capacity -- is the maximum number of elements the Queue can hold.
+		 */
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.items = new ArrayQueue();
+		this.capacity = capacity;
+		this.lock = new ReentrantLock();
+		this.notEmpty = lock.newCondition();
+		this.notFull = lock.newCondition();
+	}
+
+	private void insert(int value) {
+		/*
+		 * Helper function, lock must be held and the Queue must not be full.
+		 * Adds the element and wakes up one waiting consumer.
+		 */
+		items.enqueue(value);
+		notEmpty.signal();
+	}
+
+	private int remove() {
+		/*
+		 * Helper function, lock must be held and the Queue must not be empty.
+		 * Removes the front element and wakes up one waiting producer.
+		 */
+		int ret = items.dequeue();
+		notFull.signal();
+		return ret;
+	}
+
+	@Override
+	public void enqueue(int value) {
+		/*
+		 * This method adds a new element to the end of the Queue.
+		 * Argument int value -- is the value of the new element to be added.
+		 * Throws IllegalStateException if the Queue is full.
+		 */
+		lock.lock();
+		try {
+			if (items.size() == capacity) {
+				throw new IllegalStateException("Queue full");
+			}
+			insert(value);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void put(int value) throws InterruptedException {
+		/*
+		 * This method adds a new element to the end of the Queue, waiting while the Queue is full.
+		 * Argument int value -- is the value of the new element to be added.
+		 */
+		lock.lockInterruptibly();
+		try {
+			while (items.size() == capacity) {
+				notFull.await();
+			}
+			insert(value);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offer(int value, long timeout, TimeUnit unit) throws InterruptedException {
+		/*
+		 * This method adds a new element to the end of the Queue, waiting up to timeout while the Queue is full.
+		 * Argument int value -- is the value of the new element to be added.
+		 * Returns true if the element was added, false if the timeout elapsed first.
+		 */
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (items.size() == capacity) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = notFull.awaitNanos(nanos);
+			}
+			insert(value);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int dequeue() {
+		/*
+		 * This method removes the element at the start of the Queue
+		 * Returns the value of the removed element
+		 * If empty Queue, returns -1 and do nothing
+		 */
+		lock.lock();
+		try {
+			if (items.isEmpty()) {
+				return -1;
+			}
+			return remove();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int take() throws InterruptedException {
+		/*
+		 * This method removes the element at the start of the Queue, waiting while the Queue is empty.
+		 * Returns the value of the removed element
+		 */
+		lock.lockInterruptibly();
+		try {
+			while (items.isEmpty()) {
+				notEmpty.await();
+			}
+			return remove();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int poll(long timeout, TimeUnit unit) throws InterruptedException {
+		/*
+		 * This method removes the element at the start of the Queue, waiting up to timeout while the Queue is empty.
+		 * Returns the value of the removed element
+		 * If the timeout elapses first, returns -1 and do nothing
+		 */
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (items.isEmpty()) {
+				if (nanos <= 0) {
+					return -1;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			return remove();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void enqueueAll(int[] src, int off, int len) {
+		/*
+		 * This method adds len elements of src, starting at index off, to the end of the Queue in order.
+		 * The lock is taken once for the whole batch.
+		 * Throws IllegalStateException, without adding anything, if the Queue does not have space for all of them.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		lock.lock();
+		try {
+			if (len > capacity - items.size()) {
+				throw new IllegalStateException("Queue full");
+			}
+			items.enqueueAll(src, off, len);
+			notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int drainTo(int[] dst, int max) {
+		/*
+		 * This method removes up to max elements from the start of the Queue and stores them in order at the start of dst.
+		 * Returns the number of elements removed.
+		 * The lock is taken once for the whole batch.
+		 */
+		lock.lock();
+		try {
+			int n = items.drainTo(dst, max);
+			if (n > 0) {
+				notFull.signalAll();
+			}
+			return n;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * This method Returns the value of the front element in the Queue.
+		 * If empty Queue, returns -1.
+		 * This method does not alter the Queue in any way.
+		 */
+		lock.lock();
+		try {
+			return items.peek();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the Queue is empty
+		 * returns false otherwise
+		 */
+		return size() == 0;
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in the Queue
+		 * if empty Queue, returns 0.
+		 */
+		lock.lock();
+		try {
+			return items.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int capacity() {
+		/*
+		 * Returns the maximum number of elements the Queue can hold.
+		 */
+		return capacity;
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears all element from the Queue, and wakes up every waiting producer.
+		 */
+		lock.lock();
+		try {
+			items.clear();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public ArrayQueue snapshot() {
+		/*
+		 * snapshot() returns a plain ArrayQueue with the current elements, taken under the lock in O(1).
+		 * It shares the underlying Array copy-on-write, so the lock is not held for a copy, and the snapshot can be
+		 * read or changed by any one thread afterwards without the lock.
+		 */
+		lock.lock();
+		try {
+			return items.snapshot();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the Queue
+		 * The format is similar to how an Array is represented in String.
+		 */
+		lock.lock();
+		try {
+			return items.toString();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() writes at most limit elements to out in the toString() format, holding the lock while it writes.
+		 * Other threads wait while out is written to, so for a slow out copy the elements with toArray() first.
+		 */
+		lock.lock();
+		try {
+			items.appendTo(out, limit);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from front to back, copied while holding the lock.
+		 */
+		lock.lock();
+		try {
+			return items.toArray();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+}
@@ -0,0 +1,326 @@
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Author: Khanh Nguyen
+ * File: BlockingArrayStack.java
+ * Purpose: This file implement the BlockingArrayStack Class that implements BlockingStackInterface.
+ * 			BlockingArrayStack is a thread-safe, optionally bounded Stack that keeps its elements in an ArrayStack.
+ * 			Consumers can wait for an element with take() or poll(timeout) instead of polling pop() in a loop,
+ * 			and producers can wait for space with put() or offer(timeout) when the Stack is bounded.
+ * 			Every method holds a ReentrantLock, and waiting threads park on the notEmpty/notFull Conditions.
+ * 			Unlike a synchronized block, a ReentrantLock does not pin a virtual thread to its carrier thread,
+ * 			so thousands of virtual-thread consumers can wait on one Stack.
+ * Methods: The basic methods for a Stack is implemented, including pop(); push(); peek();isEmpty(); size(); clear() and toString();
+ * 			plus the waiting methods put(); take(); offer(value, timeout, unit) and poll(timeout, unit).
+ * 			push() never waits: on a full Stack it throws IllegalStateException. pop() never waits either.
+ */
+public class BlockingArrayStack implements BlockingStackInterface {
+
+	private final ArrayStack items;
+	private final int capacity;
+	private final ReentrantLock lock;
+	private final Condition notEmpty;
+	private final Condition notFull;
+
+	public BlockingArrayStack() {
+		/*
+		 * Constructor
+		 * Initialize an empty, unbounded BlockingArrayStack object.
+		 */
+		this(Integer.MAX_VALUE);
+	}
+
+	public BlockingArrayStack(int capacity) {
+		/*
+		 * Constructor
+		 * Initialize an empty BlockingArrayStack object.
+		 * Argument capacity -- is the maximum number of elements the Stack can hold.
+		 */
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.items = new ArrayStack();
+		this.capacity = capacity;
+		this.lock = new ReentrantLock();
+		this.notEmpty = lock.newCondition();
+		this.notFull = lock.newCondition();
+	}
+
+	private void insert(int value) {
+		/*
+		 * Helper function, lock must be held and the Stack must not be full.
+		 * Adds the element and wakes up one waiting consumer.
+		 */
+		items.push(value);
+		notEmpty.signal();
+	}
+
+	private int remove() {
+		/*
+		 * Helper function, lock must be held and the Stack must not be empty.
+		 * Removes the top element and wakes up one waiting producer.
+		 */
+		int ret = items.pop();
+		notFull.signal();
+		return ret;
+	}
+
+	@Override
+	public void push(int value) {
+		/*
+		 * This method adds a new element to the top of the Stack.
+		 * Argument int value -- is the value of the new element to be added.
+		 * Throws IllegalStateException if the Stack is full.
+		 */
+		lock.lock();
+		try {
+			if (items.size() == capacity) {
+				throw new IllegalStateException("Stack full");
+			}
+			insert(value);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void put(int value) throws InterruptedException {
+		/*
+		 * This method adds a new element to the top of the Stack, waiting while the Stack is full.
+		 * Argument int value -- is the value of the new element to be added.
+		 */
+		lock.lockInterruptibly();
+		try {
+			while (items.size() == capacity) {
+				notFull.await();
+			}
+			insert(value);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offer(int value, long timeout, TimeUnit unit) throws InterruptedException {
+		/*
+		 * This method adds a new element to the top of the Stack, waiting up to timeout while the Stack is full.
+		 * Argument int value -- is the value of the new element to be added.
+		 * Returns true if the element was added, false if the timeout elapsed first.
+		 */
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (items.size() == capacity) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = notFull.awaitNanos(nanos);
+			}
+			insert(value);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int pop() {
+		/*
+		 * This method removes the element on top of the Stack
+		 * Returns the value of the removed element
+		 * If empty Stack, returns -1 and do nothing
+		 */
+		lock.lock();
+		try {
+			if (items.isEmpty()) {
+				return -1;
+			}
+			return remove();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int take() throws InterruptedException {
+		/*
+		 * This method removes the element on top of the Stack, waiting while the Stack is empty.
+		 * Returns the value of the removed element
+		 */
+		lock.lockInterruptibly();
+		try {
+			while (items.isEmpty()) {
+				notEmpty.await();
+			}
+			return remove();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int poll(long timeout, TimeUnit unit) throws InterruptedException {
+		/*
+		 * This method removes the element on top of the Stack, waiting up to timeout while the Stack is empty.
+		 * Returns the value of the removed element
+		 * If the timeout elapses first, returns -1 and do nothing
+		 */
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (items.isEmpty()) {
+				if (nanos <= 0) {
+					return -1;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			return remove();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void pushAll(int[] src, int off, int len) {
+		/*
+		 * pushAll() pushes len elements of src, starting at index off, so src[off + len - 1] ends up on top.
+		 * The lock is taken once for the whole batch.
+		 * Throws IllegalStateException, without adding anything, if the Stack does not have space for all of them.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		lock.lock();
+		try {
+			if (len > capacity - items.size()) {
+				throw new IllegalStateException("Stack full");
+			}
+			items.pushAll(src, off, len);
+			notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int popInto(int[] dst, int max) {
+		/*
+		 * popInto() pops up to max elements into dst, so dst[0] is the former top of the Stack.
+		 * Returns the number of elements removed.
+		 * The lock is taken once for the whole batch.
+		 */
+		lock.lock();
+		try {
+			int n = items.popInto(dst, max);
+			if (n > 0) {
+				notFull.signalAll();
+			}
+			return n;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * This method Returns the value of the top element in the Stack.
+		 * If empty Stack, returns -1.
+		 * This method does not alter the Stack in any way.
+		 */
+		lock.lock();
+		try {
+			return items.peek();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the Stack is empty
+		 * returns false otherwise
+		 */
+		return size() == 0;
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in the Stack
+		 * if empty Stack, returns 0.
+		 */
+		lock.lock();
+		try {
+			return items.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int capacity() {
+		/*
+		 * Returns the maximum number of elements the Stack can hold.
+		 */
+		return capacity;
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears all element from the Stack, and wakes up every waiting producer.
+		 */
+		lock.lock();
+		try {
+			items.clear();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the Stack
+		 * The format is similar to how an Array is represented in String.
+		 */
+		lock.lock();
+		try {
+			return items.toString();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() writes at most limit elements to out in the toString() format, holding the lock while it writes.
+		 * Other threads wait while out is written to, so for a slow out copy the elements with toArray() first.
+		 */
+		lock.lock();
+		try {
+			items.appendTo(out, limit);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from top to bottom, copied while holding the lock.
+		 */
+		lock.lock();
+		try {
+			return items.toArray();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+}
@@ -0,0 +1,37 @@
+import java.util.concurrent.TimeUnit;
+
+interface BlockingQueueInterface extends QueueInterface {
+
+    /*
+     * Add an element to the back of the queue, waiting for space
+     * to become available if the queue is full.
+     */
+    void put(int value) throws InterruptedException;
+
+    /*
+     * Remove and return the front element in the queue, waiting for
+     * an element to become available if the queue is empty.
+     */
+    int take() throws InterruptedException;
+
+    /*
+     * Add an element to the back of the queue, waiting up to timeout
+     * for space to become available if the queue is full.
+     * 
+     * Returns true if the element was added, false if the timeout elapsed.
+     */
+    boolean offer(int value, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /*
+     * Remove and return the front element in the queue, waiting up to
+     * timeout for an element to become available if the queue is empty.
+     * 
+     * If the timeout elapses, make no changes to the queue and return -1.
+     */
+    int poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /*
+     * Returns the maximum number of elements the queue can hold.
+     */
+    int capacity();
+}
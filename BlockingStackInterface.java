@@ -0,0 +1,38 @@
+import java.util.concurrent.TimeUnit;
+
+interface BlockingStackInterface extends StackInterface {
+
+    /*
+     * Add an element to the top of the stack, waiting for space
+     * to become available if the stack is full.
+     */
+    void put(int value) throws InterruptedException;
+
+    /*
+     * Remove and return the top element in the stack, waiting for
+     * an element to become available if the stack is empty.
+     */
+    int take() throws InterruptedException;
+
+    /*
+     * Add an element to the top of the stack, waiting up to timeout
+     * for space to become available if the stack is full.
+     * 
+     * Returns true if the element was added, false if the timeout elapsed.
+     */
+    boolean offer(int value, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /*
+     * Remove and return the top element in the stack, waiting up to
+     * timeout for an element to become available if the stack is empty.
+     * 
+     * If the timeout elapses, make no changes to the stack and return -1.
+     */
+    int poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /*
+     * Returns the maximum number of elements the stack can hold.
+     */
+    int capacity();
+
+}
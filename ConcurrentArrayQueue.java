@@ -0,0 +1,322 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/*
+ * Author: Khanh Nguyen
+ * File: ConcurrentArrayQueue.java
+ * Purpose: This file implement the ConcurrentArrayQueue Class that implements QueueInterface.
+ * 			ConcurrentArrayQueue is a bounded, lock-free Queue that any number of threads can enqueue to and dequeue from.
+ * 			It uses a Java Array as a circular buffer (like ArrayQueue), and every slot of the buffer has its own
+ * 			sequence number that tells producers and consumers whose turn it is to use that slot (Vyukov's MPMC queue).
+ * 			A thread claims a slot with a single CAS on the tail (or head) counter, then hands the slot over by publishing
+ * 			the slot's next sequence number with a release write, so no thread ever waits on another.
+ * Methods: The basic methods for a Queue is implemented, including dequeue(); enqueue(); peek();isEmpty(); size(); clear() and toString();
+ * 			offer() is the non-throwing version of enqueue() that returns false when the Queue is full.
+ * 			size(), isEmpty(), peek(), toArray() and toString() only give a snapshot, the Queue may change while they run.
+ * 			toString() and appendTo() write the snapshot taken by toArray() one element at a time.
+ * The capacity is rounded up to a power of two so slot indexes are computed with a mask.
+ * The head and tail counters are kept on separate cache lines (see the padding classes below), so producers and
+ * consumers do not invalidate each other's cache line on every operation.
+ */
+public class ConcurrentArrayQueue extends ConcurrentArrayQueuePad2 implements QueueInterface {
+
+	private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+	// returned by poll() for an empty Queue, outside the range of any int element
+	static final long EMPTY = Long.MIN_VALUE;
+
+	private final int[] items;
+	private final long[] sequences;
+	private final int mask;
+
+	public ConcurrentArrayQueue() {
+		/*
+		 * Constructor
+		 * Initialize an empty ConcurrentArrayQueue object that holds up to 1024 elements.
+		 */
+		this(1024);
+	}
+
+	public ConcurrentArrayQueue(int capacity) {
+		/*
+		 * Constructor
+		 * Initialize an empty ConcurrentArrayQueue object.
+		 * Argument capacity -- is the maximum number of elements, rounded up to the next power of two.
+		 * Every slot starts with its own index as sequence number, which means "free for the producer at that position".
+		 */
+		if (capacity < 2 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("capacity must be between 2 and 2^30");
+		}
+		int length = Integer.highestOneBit(capacity - 1) << 1;
+		this.items = new int[length];
+		this.sequences = new long[length];
+		this.mask = length - 1;
+		for (int i = 0; i < length; i++) {
+			sequences[i] = i;
+		}
+		// publishes the initial sequence numbers to every thread that later sees this Queue
+		VarHandle.releaseFence();
+	}
+
+	public int capacity() {
+		/*
+		 * Returns the maximum number of elements the Queue can hold.
+		 */
+		return items.length;
+	}
+
+	public boolean offer(int value) {
+		/*
+		 * offer() adds a new element to the end of the Queue if there is space.
+		 * Argument int value -- is the value of the new element to be added.
+		 * Returns true if the element was added, false if the Queue is full.
+		 */
+		long pos = getTail();
+		while (true) {
+			int index = (int) pos & mask;
+			long seq = (long) SEQUENCE.getAcquire(sequences, index);
+			long dif = seq - pos;
+			if (dif == 0) {
+				// the slot is free for position pos, try to claim it
+				if (casTail(pos, pos + 1)) {
+					items[index] = value;
+					SEQUENCE.setRelease(sequences, index, pos + 1);
+					return true;
+				}
+				pos = getTail();
+			} else if (dif < 0) {
+				// the slot still holds the element from one lap ago, the Queue is full
+				return false;
+			} else {
+				// another producer claimed pos first
+				pos = getTail();
+			}
+		}
+	}
+
+	@Override
+	public void enqueue(int value) {
+		/*
+		 * This method adds a new element to the end of the Queue.
+		 * Argument int value -- is the value of the new element to be added.
+		 * Throws IllegalStateException if the Queue is full, since the Queue is bounded and never blocks.
+		 */
+		if (!offer(value)) {
+			throw new IllegalStateException("Queue full");
+		}
+	}
+
+	@Override
+	public int dequeue() {
+		/*
+		 * This method removes the element at the start of the Queue
+		 * Returns the value of the removed element
+		 * If empty Queue, returns -1 and do nothing
+		 */
+		long ret = poll();
+		return ret == EMPTY ? -1 : (int) ret;
+	}
+
+	@Override
+	public int drainTo(int[] dst, int max) {
+		/*
+		 * This method removes up to max elements from the start of the Queue and stores them in order at the start of dst.
+		 * Returns the number of elements removed, and stops early as soon as the Queue is found empty.
+		 * If other threads dequeue at the same time, dst only holds the elements this thread removed, still in Queue order.
+		 */
+		int n = Math.min(max, dst.length);
+		int count = 0;
+		while (count < n) {
+			long value = poll();
+			if (value == EMPTY) {
+				break;
+			}
+			dst[count] = (int) value;
+			count += 1;
+		}
+		return count;
+	}
+
+	long poll() {
+		/*
+		 * Helper function, also used by ShardedArrayQueue.
+		 * Removes the element at the start of the Queue and returns it widened to a long,
+		 * or returns EMPTY if the Queue is empty. Unlike dequeue(), this tells an element -1 apart from an empty Queue.
+		 */
+		long pos = getHead();
+		while (true) {
+			int index = (int) pos & mask;
+			long seq = (long) SEQUENCE.getAcquire(sequences, index);
+			long dif = seq - (pos + 1);
+			if (dif == 0) {
+				// the slot holds the element for position pos, try to claim it
+				if (casHead(pos, pos + 1)) {
+					int ret = items[index];
+					// frees the slot for the producer one lap ahead
+					SEQUENCE.setRelease(sequences, index, pos + mask + 1);
+					return ret;
+				}
+				pos = getHead();
+			} else if (dif < 0) {
+				// the producer for pos has not published yet, the Queue is empty
+				return EMPTY;
+			} else {
+				// another consumer claimed pos first
+				pos = getHead();
+			}
+		}
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * This method Returns the value of the front element in the Queue.
+		 * If empty Queue, returns -1.
+		 * This method does not alter the Queue in any way.
+		 * If another thread dequeues at the same time, the returned element may already be gone.
+		 */
+		while (true) {
+			long pos = getHead();
+			int index = (int) pos & mask;
+			long seq = (long) SEQUENCE.getAcquire(sequences, index);
+			if (seq != pos + 1) {
+				if (seq - (pos + 1) < 0) {
+					return -1;
+				}
+				continue;
+			}
+			int ret = items[index];
+			// an acquire load does not keep the plain read above from moving after it, the fence does
+			VarHandle.loadLoadFence();
+			// only return the value if the slot was not reused while reading it
+			if ((long) SEQUENCE.getAcquire(sequences, index) == seq) {
+				return ret;
+			}
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the Queue is empty
+		 * returns false otherwise
+		 */
+		return size() == 0;
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in the Queue
+		 * The head is read before the tail, so the result is never negative, and it is capped at the capacity.
+		 */
+		long head = getHead();
+		long tail = getTail();
+		return (int) Math.min(Math.max(tail - head, 0), items.length);
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears all element from the Queue.
+		 * The elements are dequeued one by one, so clear() is safe to call while other threads use the Queue.
+		 */
+		while (!isEmpty()) {
+			dequeue();
+		}
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the Queue
+		 * The format is similar to how an Array is represented in String.
+		 * Only the elements that are published and not yet dequeued when they are read are printed.
+		 */
+		return ElementFormat.toString(Arrays.stream(toArray()).iterator());
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from front to back.
+		 * Only the elements that are published and not yet dequeued when they are read are copied.
+		 */
+		long pos = getHead();
+		long tail = getTail();
+		int[] ret = new int[(int) Math.max(0, Math.min(tail - pos, items.length))];
+		int n = 0;
+		for (; pos < tail && n < ret.length; pos++) {
+			int index = (int) pos & mask;
+			if ((long) SEQUENCE.getAcquire(sequences, index) == pos + 1) {
+				ret[n] = items[index];
+				n += 1;
+			}
+		}
+		return n == ret.length ? ret : Arrays.copyOf(ret, n);
+	}
+
+}
+
+/*
+ * The classes below only exist to lay out the head and tail counters of ConcurrentArrayQueue on their own cache lines.
+ * Java keeps the fields of a superclass before the fields of a subclass, so 128 bytes of unused long fields
+ * between (and around) the counters keep them on separate cache lines even with adjacent-line prefetching.
+ */
+abstract class ConcurrentArrayQueuePad0 {
+	long p00, p01, p02, p03, p04, p05, p06, p07;
+	long p08, p09, p10, p11, p12, p13, p14, p15;
+}
+
+abstract class ConcurrentArrayQueueTail extends ConcurrentArrayQueuePad0 {
+
+	private static final VarHandle TAIL;
+	static {
+		try {
+			TAIL = MethodHandles.lookup().findVarHandle(ConcurrentArrayQueueTail.class, "tail", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private volatile long tail;
+
+	final long getTail() {
+		return (long) TAIL.getAcquire(this);
+	}
+
+	final boolean casTail(long expected, long next) {
+		return TAIL.compareAndSet(this, expected, next);
+	}
+}
+
+abstract class ConcurrentArrayQueuePad1 extends ConcurrentArrayQueueTail {
+	long p20, p21, p22, p23, p24, p25, p26, p27;
+	long p28, p29, p30, p31, p32, p33, p34, p35;
+}
+
+abstract class ConcurrentArrayQueueHead extends ConcurrentArrayQueuePad1 {
+
+	private static final VarHandle HEAD;
+	static {
+		try {
+			HEAD = MethodHandles.lookup().findVarHandle(ConcurrentArrayQueueHead.class, "head", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private volatile long head;
+
+	final long getHead() {
+		return (long) HEAD.getAcquire(this);
+	}
+
+	final boolean casHead(long expected, long next) {
+		return HEAD.compareAndSet(this, expected, next);
+	}
+}
+
+abstract class ConcurrentArrayQueuePad2 extends ConcurrentArrayQueueHead {
+	long p40, p41, p42, p43, p44, p45, p46, p47;
+	long p48, p49, p50, p51, p52, p53, p54, p55;
+}
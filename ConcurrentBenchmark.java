@@ -0,0 +1,259 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ * Author: Khanh Nguyen
+ * File: ConcurrentBenchmark.java
+ * Purpose: This file implements the multi-threaded counterpart of Benchmark.java.
+ * 			It measures how the throughput of the thread-safe implementations scales with the number of threads,
+ * 			compared to the single-threaded implementations behind one lock (the way they are used today).
+ * 			Every run starts the same number of producer and consumer threads. Producers together add OPS_PER_RUN
+ * 			elements, consumers remove elements until every producer is done and the structure is empty.
+ * 			A thread that finds the structure full or empty yields, so the benchmark also works with more threads than cores.
+ * Usage: java ConcurrentBenchmark [filter] [maxThreads]
+ * 			filter     -- only runs implementations whose name contains this text, "all" runs everything
+ * 			maxThreads -- the largest number of producers (and of consumers) to run, default 2 x the number of cores;
+ * 			              java ConcurrentBenchmark Queue 128 compares the queues from 1 to 128 producers and consumers
+ * New implementations are added to the TARGETS list in registerImplementations().
+ */
+public class ConcurrentBenchmark {
+
+	private static final int OPS_PER_RUN = 4_000_000;
+	private static final int WARMUP_RUNS = 2;
+	private static final int MEASURED_RUNS = 3;
+	private static final int CAPACITY = 1 << 16;
+
+	private static final List<Impl> TARGETS = new ArrayList<>();
+
+	interface Target {
+		/*
+		 * The two operations a run needs from a structure under test.
+		 * offer() returns false if a bounded structure is full, poll() returns -1 if the structure is empty.
+		 */
+		boolean offer(int value);
+
+		int poll();
+	}
+
+	static class Impl {
+		/*
+		 * One implementation under test: its name, how to create an empty instance,
+		 * and the largest number of producers (and of consumers) it supports.
+		 */
+		final String name;
+		final Supplier<Target> create;
+		final int maxThreads;
+
+		Impl(String name, Supplier<Target> create) {
+			this(name, create, Integer.MAX_VALUE);
+		}
+
+		Impl(String name, Supplier<Target> create, int maxThreads) {
+			this.name = name;
+			this.create = create;
+			this.maxThreads = maxThreads;
+		}
+	}
+
+	private static void registerImplementations() {
+		/*
+		 * Lists every implementation the benchmark runs against.
+		 */
+		TARGETS.add(new Impl("synchronized ArrayQueue", () -> {
+			ArrayQueue q = new ArrayQueue();
+			return new Target() {
+				public synchronized boolean offer(int value) {
+					q.enqueue(value);
+					return true;
+				}
+
+				public synchronized int poll() {
+					return q.dequeue();
+				}
+			};
+		}));
+		TARGETS.add(new Impl("ConcurrentArrayQueue", () -> {
+			ConcurrentArrayQueue q = new ConcurrentArrayQueue(CAPACITY);
+			return new Target() {
+				public boolean offer(int value) {
+					return q.offer(value);
+				}
+
+				public int poll() {
+					return q.dequeue();
+				}
+			};
+		}));
+		// one shard per core (at least two), holding CAPACITY elements together like the other bounded queues
+		int shards = Math.max(2, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+		TARGETS.add(new Impl("ShardedArrayQueue", () -> {
+			ShardedArrayQueue q = new ShardedArrayQueue(shards, CAPACITY / shards, false);
+			return new Target() {
+				public boolean offer(int value) {
+					return q.offer(value);
+				}
+
+				public int poll() {
+					return q.dequeue();
+				}
+			};
+		}));
+		TARGETS.add(new Impl("ShardedArrayQueue-choiceOfTwo", () -> {
+			ShardedArrayQueue q = new ShardedArrayQueue(shards, CAPACITY / shards, true);
+			return new Target() {
+				public boolean offer(int value) {
+					return q.offer(value);
+				}
+
+				public int poll() {
+					return q.dequeue();
+				}
+			};
+		}));
+		TARGETS.add(new Impl("SpscArrayQueue", () -> {
+			SpscArrayQueue q = new SpscArrayQueue(CAPACITY);
+			return new Target() {
+				public boolean offer(int value) {
+					return q.offer(value);
+				}
+
+				public int poll() {
+					return q.dequeue();
+				}
+			};
+		}, 1));
+		TARGETS.add(new Impl("synchronized ArrayStack", () -> {
+			ArrayStack s = new ArrayStack();
+			return new Target() {
+				public synchronized boolean offer(int value) {
+					s.push(value);
+					return true;
+				}
+
+				public synchronized int poll() {
+					return s.pop();
+				}
+			};
+		}));
+		TARGETS.add(new Impl("ConcurrentListStack", () -> {
+			ConcurrentListStack s = new ConcurrentListStack();
+			return new Target() {
+				public boolean offer(int value) {
+					s.push(value);
+					return true;
+				}
+
+				public int poll() {
+					return s.pop();
+				}
+			};
+		}));
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		String filter = args.length > 0 && !args[0].equals("all") ? args[0] : "";
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 2 * Runtime.getRuntime().availableProcessors();
+		registerImplementations();
+
+		System.out.printf("%-32s %10s %10s %16s %10s%n", "implementation", "producers", "consumers", "ops/s", "ms");
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			for (Impl impl : TARGETS) {
+				if (!impl.name.contains(filter) || threads > impl.maxThreads) {
+					continue;
+				}
+				for (int i = 0; i < WARMUP_RUNS; i++) {
+					run(impl.create.get(), threads, threads);
+				}
+				long best = Long.MAX_VALUE;
+				for (int i = 0; i < MEASURED_RUNS; i++) {
+					best = Math.min(best, run(impl.create.get(), threads, threads));
+				}
+				System.out.printf("%-32s %10d %10d %16.0f %10.1f%n", impl.name, threads, threads,
+						2.0 * OPS_PER_RUN * 1e9 / best, best / 1e6);
+			}
+		}
+	}
+
+	static long run(Target target, int producers, int consumers) throws InterruptedException {
+		/*
+		 * Runs one measured run and returns its duration in nanoseconds.
+		 * Throws IllegalStateException if the consumers did not receive exactly what the producers added,
+		 * which means the implementation lost or duplicated an element.
+		 */
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger producing = new AtomicInteger(producers);
+		AtomicLong received = new AtomicLong();
+		AtomicLong receivedSum = new AtomicLong();
+		int perProducer = OPS_PER_RUN / producers;
+		List<Thread> threads = new ArrayList<>();
+
+		for (int p = 0; p < producers; p++) {
+			threads.add(new Thread(() -> {
+				await(start);
+				for (int i = 0; i < perProducer; i++) {
+					while (!target.offer(i)) {
+						Thread.yield();
+					}
+				}
+				producing.decrementAndGet();
+			}));
+		}
+		for (int c = 0; c < consumers; c++) {
+			threads.add(new Thread(() -> {
+				await(start);
+				long count = 0;
+				long sum = 0;
+				while (true) {
+					int value = target.poll();
+					if (value >= 0) {
+						count += 1;
+						sum += value;
+					} else if (producing.get() == 0) {
+						// every producer is done, so one more empty poll means the structure is drained
+						value = target.poll();
+						if (value < 0) {
+							break;
+						}
+						count += 1;
+						sum += value;
+					} else {
+						Thread.yield();
+					}
+				}
+				received.addAndGet(count);
+				receivedSum.addAndGet(sum);
+			}));
+		}
+		for (Thread t : threads) {
+			t.start();
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread t : threads) {
+			t.join();
+		}
+		long nanos = System.nanoTime() - begin;
+
+		long expectedSum = (long) producers * ((long) perProducer * (perProducer - 1) / 2);
+		if (received.get() != (long) producers * perProducer || receivedSum.get() != expectedSum) {
+			throw new IllegalStateException("lost or duplicated elements: received " + received.get());
+		}
+		return nanos;
+	}
+
+	private static void await(CountDownLatch latch) {
+		/*
+		 * Waits for the start signal, so every thread begins at the same time.
+		 */
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
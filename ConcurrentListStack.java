@@ -0,0 +1,279 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Author: Khanh Nguyen
+ * File: ConcurrentListStack.java
+ * Purpose: This file implement the ConcurrentListStack Class that implements StackInterface.
+ * 			ConcurrentListStack is a lock-free Stack that any number of threads can push to and pop from (a Treiber stack).
+ * 			Like ListStack, the top of the Stack is the head of a linked list of Nodes, and push()/pop() swap the head
+ * 			with a single CAS. Nodes are never reused, so a CAS can not succeed on a recycled Node (no ABA problem).
+ * 			When the CAS fails because other threads changed the head, the thread tries the elimination array before
+ * 			retrying: a push waiting in a slot of the array and a pop that finds it cancel each other out, the pop takes
+ * 			the pushed value directly, and neither touches the head. Under heavy contention this lets pairs of
+ * 			operations complete in parallel instead of all retrying on the same head.
+ * Methods: The basic methods for a Stack is implemented, including pop(); push(); peek();isEmpty(); size(); clear() and toString();
+ * 			size(), toArray() and toString() walk the list, so they are O(n) and only give a snapshot.
+ * 			toString() and appendTo() write the snapshot taken by toArray() one element at a time, from bottom to top.
+ */
+public class ConcurrentListStack implements StackInterface {
+
+	private static final VarHandle HEAD;
+	private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Node[].class);
+	static {
+		try {
+			HEAD = MethodHandles.lookup().findVarHandle(ConcurrentListStack.class, "head", Node.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	// slots are this many array elements apart, so two slots never share a cache line
+	private static final int SLOT_SPACING = 16;
+	// how many times a push checks its elimination slot before taking its offer back
+	private static final int ELIMINATION_SPINS = 64;
+
+	private volatile Node head;
+	private final Node[] slots;
+	private final int width;
+
+	static final class Node {
+		/*
+		 * This class implements the individual nodes of the list.
+		 * A Node never changes after it is pushed, so its fields are final.
+		 */
+		final int value;
+		final Node next;
+
+		Node(int value, Node next) {
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	public ConcurrentListStack() {
+		/*
+		 * Initialize a new empty ConcurrentListStack object
+		 * The elimination array gets one slot per two cores, between 1 and 16 slots.
+		 */
+		this(Math.max(1, Math.min(16, Runtime.getRuntime().availableProcessors() / 2)));
+	}
+
+	public ConcurrentListStack(int eliminationWidth) {
+		/*
+		 * Initialize a new empty ConcurrentListStack object
+		 * Argument eliminationWidth -- is the number of slots in the elimination array, 0 disables elimination.
+		 */
+		if (eliminationWidth < 0) {
+			throw new IllegalArgumentException("eliminationWidth must not be negative");
+		}
+		this.width = eliminationWidth;
+		this.slots = new Node[eliminationWidth * SLOT_SPACING];
+	}
+
+	@Override
+	public void push(int value) {
+		/*
+		 * push() adds a new element to the top of the stack
+		 * Argument int value -- is the value of the new element to be added
+		 * If the CAS on the head fails, the push is offered to a pop through the elimination array before retrying.
+		 */
+		while (true) {
+			Node top = head;
+			if (HEAD.compareAndSet(this, top, new Node(value, top))) {
+				return;
+			}
+			if (width > 0 && eliminatePush(new Node(value, null))) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public int pop() {
+		/*
+		 * pop() removes the top element of the Stack.
+		 * returns the value of the element removed.
+		 * If empty Stack, returns -1 and do nothing
+		 * If the CAS on the head fails, the pop looks for a waiting push in the elimination array before retrying.
+		 */
+		while (true) {
+			Node top = head;
+			if (top == null) {
+				return -1;
+			}
+			if (HEAD.compareAndSet(this, top, top.next)) {
+				return top.value;
+			}
+			if (width > 0) {
+				Node offer = eliminatePop();
+				if (offer != null) {
+					return offer.value;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void pushAll(int[] src, int off, int len) {
+		/*
+		 * pushAll() pushes len elements of src, starting at index off, so src[off + len - 1] ends up on top.
+		 * The Nodes are linked to each other first and the whole chain is put on the Stack with one CAS,
+		 * so other threads see either none or all of the elements.
+		 * Node.next is final, so if the CAS fails the chain is built again on top of the new head.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		if (len == 0) {
+			return;
+		}
+		while (true) {
+			Node top = head;
+			Node chain = top;
+			for (int i = off; i < off + len; i++) {
+				chain = new Node(src[i], chain);
+			}
+			if (HEAD.compareAndSet(this, top, chain)) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public int popInto(int[] dst, int max) {
+		/*
+		 * popInto() pops up to max elements into dst, so dst[0] is the former top of the Stack.
+		 * Returns the number of elements removed.
+		 * The Nodes are read first and then removed all at once with one CAS on the head.
+		 */
+		int n = Math.min(max, dst.length);
+		if (n <= 0) {
+			return 0;
+		}
+		while (true) {
+			Node top = head;
+			Node pointer = top;
+			int count = 0;
+			while (count < n && pointer != null) {
+				dst[count] = pointer.value;
+				pointer = pointer.next;
+				count += 1;
+			}
+			if (HEAD.compareAndSet(this, top, pointer)) {
+				return count;
+			}
+		}
+	}
+
+	boolean eliminatePush(Node offer) {
+		/*
+		 * Helper function
+		 * Puts offer in a random free slot and waits a short time for a pop to take it.
+		 * Returns true if a pop took the offer, which completes the push.
+		 * Returns false if the slot was busy or no pop came, then the push retries on the head.
+		 * Package-private so StressCheck can run the exchange on its own.
+		 */
+		int index = ThreadLocalRandom.current().nextInt(width) * SLOT_SPACING;
+		if (!SLOT.compareAndSet(slots, index, (Node) null, offer)) {
+			return false;
+		}
+		for (int i = 0; i < ELIMINATION_SPINS; i++) {
+			if (SLOT.getAcquire(slots, index) != offer) {
+				return true;
+			}
+			Thread.onSpinWait();
+		}
+		// take the offer back, if that fails a pop took it in the meantime
+		return !SLOT.compareAndSet(slots, index, offer, (Node) null);
+	}
+
+	Node eliminatePop() {
+		/*
+		 * Helper function
+		 * Looks at a random slot and takes the push offer waiting there, if any.
+		 * Returns the taken offer, or null if the slot was empty or another pop was faster.
+		 */
+		int index = ThreadLocalRandom.current().nextInt(width) * SLOT_SPACING;
+		Node offer = (Node) SLOT.getAcquire(slots, index);
+		if (offer != null && SLOT.compareAndSet(slots, index, offer, (Node) null)) {
+			return offer;
+		}
+		return null;
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * peek() returns the value of the element on top of the Stack
+		 * if empty Stack, returns -1.
+		 * takes no argument.
+		 */
+		Node top = head;
+		if (top == null) {
+			return -1;
+		}
+		return top.value;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the Stack is empty
+		 * returns false otherwise
+		 * Takes no argument
+		 */
+		return head == null;
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in the Stack
+		 * if empty Stack, returns 0.
+		 * Counts the Nodes reachable from the head at the time of the call.
+		 */
+		int count = 0;
+		for (Node pointer = head; pointer != null; pointer = pointer.next) {
+			count += 1;
+		}
+		return count;
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears all element from the Stack.
+		 * Elements pushed by other threads at the same time may or may not be cleared.
+		 */
+		head = null;
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the Stack
+		 * The format is similar to how an Array is represented in String, from bottom to top like ListStack.
+		 */
+		return ElementFormat.toString(ElementFormat.reversed(toArray()));
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from top to bottom,
+		 * following the Nodes reachable from the head at the time of the call.
+		 */
+		int[] ret = new int[16];
+		int n = 0;
+		for (Node pointer = head; pointer != null; pointer = pointer.next) {
+			if (n == ret.length) {
+				ret = Arrays.copyOf(ret, n * 2);
+			}
+			ret[n] = pointer.value;
+			n += 1;
+		}
+		return Arrays.copyOf(ret, n);
+	}
+
+}
@@ -0,0 +1,415 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * Author: Khanh Nguyen
+ * File: DurableArrayStack.java
+ * Purpose: This file implement the DurableArrayStack Class that implements StackInterface.
+ * 			DurableArrayStack is an ArrayStack that survives restarts. It keeps the elements in an ArrayStack in memory,
+ * 			and stores them in a directory as a snapshot plus a write-ahead log (WAL) of every operation since that snapshot.
+ * 			Files are numbered by generation: snapshot-<g>.dat holds the Stack as it was before the first record of
+ * 			wal-<g>.log. Recovery loads the newest snapshot and replays every WAL of the same or a later generation.
+ * WAL format: one byte per operation, followed by the 4-byte value for a push. Records are collected in a buffer and
+ * 			written to the log when the buffer is full, on sync(), and every syncEvery operations (which also fsyncs).
+ * 			A record cut off by a crash at the end of the log is ignored on recovery.
+ * Snapshot format: the number of elements, then the elements from bottom to top, 4 bytes each, written in one NIO write.
+ * 			checkpoint() only pauses the caller for one System.arraycopy of the Stack and the switch to a new WAL;
+ * 			the snapshot file is written by a background thread, under a temporary name that is renamed when complete.
+ * 			Once a snapshot is in place, the older snapshots and WALs are deleted. The directory is fsynced after a WAL
+ * 			is created and after a snapshot is renamed, so neither can be lost in a crash once the stack relies on it.
+ * 			If writing a snapshot fails, nothing is deleted, so recovery still uses the previous snapshot and the WALs.
+ * 			The failure completes the returned future, and is thrown once more by the next checkpoint() or close();
+ * 			after that, checkpoint() starts a new snapshot, so one I/O error does not stop checkpointing for good.
+ * Methods: The basic methods for a Stack is implemented, including pop(); push(); peek();isEmpty(); size(); clear() and toString();
+ * 			plus checkpoint(), sync() and close(). I/O errors are thrown as UncheckedIOException.
+ * This class is not thread-safe, except that a checkpoint runs in the background while the Stack keeps being used.
+ * A directory must only be used by one DurableArrayStack at a time.
+ */
+public class DurableArrayStack implements StackInterface, AutoCloseable {
+
+	private static final byte OP_PUSH = 1;
+	private static final byte OP_POP = 2;
+	private static final byte OP_CLEAR = 3;
+	private static final int WAL_BUFFER_BYTES = 1 << 16;
+
+	private final Path dir;
+	private final int syncEvery;
+	private final ArrayStack stack;
+	private final ExecutorService snapshotWriter;
+	private final ByteBuffer walBuffer;
+
+	private FileChannel wal;
+	private long generation;
+	private int unsynced;
+	private CompletableFuture<Void> pendingSnapshot;
+
+	public DurableArrayStack(Path dir) throws IOException {
+		/*
+		 * Constructor
+		 * Opens (or creates) the Stack stored in dir, fsyncing the WAL every 1024 operations.
+		 */
+		this(dir, 1024);
+	}
+
+	public DurableArrayStack(Path dir, int syncEvery) throws IOException {
+		/*
+		 * Constructor
+		 * Opens (or creates) the Stack stored in dir: loads the newest snapshot, replays the WALs after it,
+		 * and starts a new WAL generation for the operations of this run.
+		 * Argument syncEvery -- is the number of operations between fsyncs of the WAL, 0 only syncs on sync(), checkpoint() and close().
+		 */
+		if (syncEvery < 0) {
+			throw new IllegalArgumentException("syncEvery must not be negative");
+		}
+		this.dir = dir;
+		this.syncEvery = syncEvery;
+		this.stack = new ArrayStack();
+		this.walBuffer = ByteBuffer.allocateDirect(WAL_BUFFER_BYTES);
+		this.pendingSnapshot = CompletableFuture.completedFuture(null);
+		Files.createDirectories(dir);
+
+		List<Long> snapshots = generations("snapshot-", ".dat");
+		long base = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+		if (base > 0) {
+			loadSnapshot(snapshotFile(base));
+		}
+		long last = base;
+		for (long g : generations("wal-", ".log")) {
+			if (g >= base) {
+				replay(walFile(g));
+				last = g;
+			}
+		}
+		this.generation = last + 1;
+		this.wal = openWal(generation);
+		this.snapshotWriter = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "DurableArrayStack snapshot writer");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	private Path snapshotFile(long g) {
+		return dir.resolve("snapshot-" + g + ".dat");
+	}
+
+	private Path walFile(long g) {
+		return dir.resolve("wal-" + g + ".log");
+	}
+
+	private List<Long> generations(String prefix, String suffix) throws IOException {
+		/*
+		 * Helper function
+		 * Returns the generation numbers of the files named prefix<g>suffix in dir, in increasing order.
+		 */
+		List<Long> ret = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*" + suffix)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				ret.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+			}
+		}
+		Collections.sort(ret);
+		return ret;
+	}
+
+	private void loadSnapshot(Path file) throws IOException {
+		/*
+		 * Helper function
+		 * Reads a whole snapshot file into memory and pushes its elements in one pushAll().
+		 */
+		ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+		int count = bytes.getInt();
+		int[] items = new int[count];
+		bytes.asIntBuffer().get(items);
+		stack.pushAll(items, 0, count);
+	}
+
+	private void replay(Path file) throws IOException {
+		/*
+		 * Helper function
+		 * Applies every complete record of a WAL file to the Stack, stopping at a record cut off by a crash.
+		 */
+		ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+		while (bytes.hasRemaining()) {
+			byte op = bytes.get();
+			if (op == OP_PUSH) {
+				if (bytes.remaining() < 4) {
+					return;
+				}
+				stack.push(bytes.getInt());
+			} else if (op == OP_POP) {
+				stack.pop();
+			} else if (op == OP_CLEAR) {
+				stack.clear();
+			} else {
+				return;
+			}
+		}
+	}
+
+	private FileChannel openWal(long g) throws IOException {
+		/*
+		 * Helper function
+		 * Opens (creating if needed) the WAL of generation g, and fsyncs the directory so the new file's entry is
+		 * on disk before any record synced to it is.
+		 */
+		FileChannel ret = FileChannel.open(walFile(g), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		try {
+			forceDirectory();
+		} catch (IOException e) {
+			ret.close();
+			throw e;
+		}
+		return ret;
+	}
+
+	private void forceDirectory() throws IOException {
+		/*
+		 * Helper function
+		 * fsyncs the directory, so files created, renamed or deleted in it stay that way after a crash.
+		 */
+		try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+			channel.force(true);
+		}
+	}
+
+	private void log(byte op, int value) {
+		/*
+		 * Helper function
+		 * Adds a record to the WAL buffer, writing the buffer out first if the record does not fit,
+		 * and syncs when syncEvery operations have happened since the last sync.
+		 */
+		if (walBuffer.remaining() < 5) {
+			flushWal();
+		}
+		walBuffer.put(op);
+		if (op == OP_PUSH) {
+			walBuffer.putInt(value);
+		}
+		unsynced += 1;
+		if (syncEvery > 0 && unsynced >= syncEvery) {
+			sync();
+		}
+	}
+
+	private void flushWal() {
+		/*
+		 * Helper function
+		 * Writes the WAL buffer to the WAL file, without fsync.
+		 */
+		walBuffer.flip();
+		try {
+			while (walBuffer.hasRemaining()) {
+				wal.write(walBuffer);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		walBuffer.clear();
+	}
+
+	public void sync() {
+		/*
+		 * sync() makes every operation done so far durable, by writing out the WAL buffer and fsyncing the WAL.
+		 */
+		flushWal();
+		try {
+			wal.force(false);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		unsynced = 0;
+	}
+
+	public CompletableFuture<Void> checkpoint() {
+		/*
+		 * checkpoint() starts writing a snapshot of the Stack, and returns a future that completes when it is on disk.
+		 * The caller only waits for the previous checkpoint (if still running), one bulk copy of the Stack,
+		 * and the switch to a new WAL. The rest happens on the snapshot writer thread.
+		 */
+		awaitSnapshot();
+		sync();
+		ArrayStack copy = new ArrayStack(stack);
+		long g = generation + 1;
+		try {
+			wal.close();
+			wal = openWal(g);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		generation = g;
+		pendingSnapshot = CompletableFuture.runAsync(() -> writeSnapshot(copy, g), snapshotWriter);
+		return pendingSnapshot;
+	}
+
+	private void awaitSnapshot() {
+		/*
+		 * Helper function
+		 * Waits for the running snapshot, if any. If it failed, throws its failure, but only once:
+		 * pendingSnapshot is reset first, so the next checkpoint() or close() does not throw it again.
+		 */
+		CompletableFuture<Void> previous = pendingSnapshot;
+		pendingSnapshot = CompletableFuture.completedFuture(null);
+		previous.join();
+	}
+
+	private void writeSnapshot(ArrayStack copy, long g) {
+		/*
+		 * Runs on the snapshot writer thread.
+		 * Writes copy as snapshot generation g with one write of a buffer holding the count and all elements,
+		 * fsyncs it, renames it into place, fsyncs the directory, and then deletes the snapshots and WALs it replaces.
+		 */
+		Path tmp = dir.resolve("snapshot-" + g + ".tmp");
+		ByteBuffer bytes = ByteBuffer.allocateDirect(4 + 4 * copy.size());
+		bytes.putInt(copy.size());
+		copy.writeTo(bytes.asIntBuffer());
+		bytes.clear();
+		try {
+			try (FileChannel channel = FileChannel.open(tmp,
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				while (bytes.hasRemaining()) {
+					channel.write(bytes);
+				}
+				channel.force(true);
+			}
+			Files.move(tmp, snapshotFile(g), StandardCopyOption.ATOMIC_MOVE);
+			// the rename must be on disk before the files it replaces are deleted
+			forceDirectory();
+			for (long old : generations("snapshot-", ".dat")) {
+				if (old < g) {
+					Files.deleteIfExists(snapshotFile(old));
+				}
+			}
+			for (long old : generations("wal-", ".log")) {
+				if (old < g) {
+					Files.deleteIfExists(walFile(old));
+				}
+			}
+		} catch (IOException e) {
+			try {
+				Files.deleteIfExists(tmp);
+			} catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void push(int value) {
+		/*
+		 * push() push a new element to the Stack and logs it.
+		 * Argument: int value -- is the value of the new element to push to the stack.
+		 */
+		stack.push(value);
+		log(OP_PUSH, value);
+	}
+
+	@Override
+	public int pop() {
+		/*
+		 * pop() removes the element on top of the Stack and logs it.
+		 * Returns the value of the removed element.
+		 * If empty Stack, returns -1 and do nothing (nothing is logged either).
+		 */
+		if (stack.isEmpty()) {
+			return -1;
+		}
+		int ret = stack.pop();
+		log(OP_POP, 0);
+		return ret;
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * peek() Returns the value of the top element in the Stack.
+		 * If empty Stack, returns -1.
+		 */
+		return stack.peek();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the Stack is empty
+		 * returns false otherwise
+		 */
+		return stack.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in the Stack
+		 */
+		return stack.size();
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears all element from the Stack and logs it.
+		 */
+		stack.clear();
+		log(OP_CLEAR, 0);
+	}
+
+	@Override
+	public void close() {
+		/*
+		 * close() waits for a running checkpoint, syncs the WAL and closes it.
+		 * The Stack must not be used afterwards.
+		 */
+		try {
+			awaitSnapshot();
+		} finally {
+			snapshotWriter.shutdown();
+			sync();
+			try {
+				wal.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	public String toString() {
+		/*
+		 * toString() returns the String representation of the Stack
+		 * The format is similar to how an Array is represented in String.
+		 */
+		return stack.toString();
+	}
+
+	@Override
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() writes at most limit elements to out in the toString() format, from the in-memory Stack.
+		 */
+		stack.appendTo(out, limit);
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from top to bottom, from the in-memory Stack.
+		 */
+		return stack.toArray();
+	}
+
+}
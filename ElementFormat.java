@@ -0,0 +1,131 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/*
+ * Author: Khanh Nguyen
+ * File: ElementFormat.java
+ * Purpose: This file implements ElementFormat, the code shared by every Stack and Queue to write its elements as text
+ * 			in the format toString() has always used: {1,2,3}, and {} when empty.
+ * 			The elements are appended to an Appendable (a StringBuilder, a Writer, ...) one at a time, so the cost is
+ * 			linear in the number of elements: there is no String concatenation in a loop, and when the Appendable is a
+ * 			Writer the output is never held in memory as a whole.
+ * 			A limit stops the output after that many elements; if elements are left, the text ends with ",...}".
+ * 			The int methods never box; the Iterator<?> versions are for the long, double and reference Stacks and Queues
+ * 			that Generate.java makes, and write each element with String.valueOf().
+ */
+final class ElementFormat {
+
+	private ElementFormat() {
+	}
+
+	static void appendTo(Appendable out, PrimitiveIterator.OfInt elements, int limit) throws IOException {
+		/*
+		 * Writes at most limit elements of elements to out, in the order the iterator returns them.
+		 * Throws IllegalArgumentException if limit is negative.
+		 */
+		if (limit < 0) {
+			throw new IllegalArgumentException("limit must not be negative");
+		}
+		// a StringBuilder takes the int directly, so no String is created per element
+		StringBuilder builder = out instanceof StringBuilder ? (StringBuilder) out : null;
+		out.append('{');
+		int written = 0;
+		while (elements.hasNext()) {
+			if (written == limit) {
+				out.append(written == 0 ? "..." : ",...");
+				break;
+			}
+			if (written > 0) {
+				out.append(',');
+			}
+			int value = elements.nextInt();
+			if (builder != null) {
+				builder.append(value);
+			} else {
+				out.append(Integer.toString(value));
+			}
+			written += 1;
+		}
+		out.append('}');
+	}
+
+	static void appendTo(Appendable out, Iterator<?> elements, int limit) throws IOException {
+		/*
+		 * Writes at most limit elements of elements to out, in the order the iterator returns them.
+		 * Throws IllegalArgumentException if limit is negative.
+		 */
+		if (limit < 0) {
+			throw new IllegalArgumentException("limit must not be negative");
+		}
+		out.append('{');
+		int written = 0;
+		while (elements.hasNext()) {
+			if (written == limit) {
+				out.append(written == 0 ? "..." : ",...");
+				break;
+			}
+			if (written > 0) {
+				out.append(',');
+			}
+			out.append(String.valueOf(elements.next()));
+			written += 1;
+		}
+		out.append('}');
+	}
+
+	static String toString(PrimitiveIterator.OfInt elements) {
+		/*
+		 * Returns every element of elements as one String, for toString().
+		 */
+		StringBuilder ret = new StringBuilder();
+		try {
+			appendTo(ret, elements, Integer.MAX_VALUE);
+		} catch (IOException e) {
+			// a StringBuilder never throws IOException
+			throw new UncheckedIOException(e);
+		}
+		return ret.toString();
+	}
+
+	static String toString(Iterator<?> elements) {
+		/*
+		 * Returns every element of elements as one String, for toString().
+		 */
+		StringBuilder ret = new StringBuilder();
+		try {
+			appendTo(ret, elements, Integer.MAX_VALUE);
+		} catch (IOException e) {
+			// a StringBuilder never throws IOException
+			throw new UncheckedIOException(e);
+		}
+		return ret.toString();
+	}
+
+	static PrimitiveIterator.OfInt reversed(int[] values) {
+		/*
+		 * Returns an iterator over values from the last element to the first.
+		 * Used by the Stacks, whose toArray() goes from top to bottom while toString() goes from bottom to top.
+		 */
+		return new PrimitiveIterator.OfInt() {
+			private int index = values.length;
+
+			@Override
+			public boolean hasNext() {
+				return index > 0;
+			}
+
+			@Override
+			public int nextInt() {
+				if (index == 0) {
+					throw new NoSuchElementException();
+				}
+				index -= 1;
+				return values[index];
+			}
+		};
+	}
+
+}
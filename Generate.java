@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Author: Khanh Nguyen
+ * File: Generate.java
+ * Purpose: This file implements the source generator for the long, double and reference versions of the Stacks and Queues.
+ * 			Every file templates/X.java.template is turned into one Java file per element kind (Long, Double and Ref),
+ * 			so the long and double versions work on primitive long[] and double[] Arrays with no boxing,
+ * 			and only the Ref version is generic. The generated files go to generated/ and must not be edited by hand.
+ * Source of truth: the int classes are. StackInterface, QueueInterface, IntArrayDeque, SpscArrayQueue,
+ * 			ConcurrentArrayQueue and ConcurrentListStack define the API and the algorithm, and each template is the same
+ * 			file over $type$ (Queue, Stack, ArrayDeque, SpscArrayQueue, ConcurrentArrayQueue and ConcurrentListStack).
+ * 			A change to one of those int files must be made to its template in the same commit.
+ * 			The other implementations are int only: ArrayStack, ArrayQueue, ListStack and ListQueue are covered by
+ * 			ArrayDeque, and the rest are built around int for a reason (file formats, task ids, ShardedArrayQueue's
+ * 			use of ConcurrentArrayQueue.poll(), ...) or are not made for speed.
+ * Template syntax:
+ * 			$Name$       -- Long, Double or Ref, used in class names (LongStack, RefArrayDeque, ...)
+ * 			$type$       -- the element type: long, double or T
+ * 			$erased$     -- the element type of the Array toArray() returns: long, double or Object, since a T[] can not be created
+ * 			$generic$    -- nothing for long and double, <T> for Ref, put after a class name
+ * 			$wildcard$   -- nothing for long and double, <?> for Ref
+ * 			$empty$      -- the value returned by pop()/dequeue()/peek() on an empty structure: -1, -1 or null
+ * 			$eq(a, b)$   -- an equality test between two elements (== on the bits for double, Objects.equals for Ref)
+ * 			//#if Name[,Name]  ...  //#endif  -- keeps the lines in between only for the listed element kinds
+ * 			The other $...$ tokens are the element kind's functional and stream types, listed in the KINDS table.
+ * Usage: java Generate [templateDir] [outputDir]
+ * 			templateDir -- default templates
+ * 			outputDir   -- default generated
+ * 			then compile with: javac *.java generated/*.java
+ */
+public class Generate {
+
+	private static final Pattern EQ = Pattern.compile("\\$eq\\(([^,()]+(?:\\([^()]*\\))?),\\s*([^()]+(?:\\([^()]*\\))?)\\)\\$");
+	private static final Pattern TOKEN = Pattern.compile("\\$[A-Za-z]+\\$");
+
+	private static final Map<String, Map<String, String>> KINDS = new LinkedHashMap<>();
+	static {
+		KINDS.put("Long", kind(
+				"$Name$", "Long",
+				"$type$", "long",
+				"$erased$", "long",
+				"$generic$", "",
+				"$wildcard$", "",
+				"$empty$", "-1",
+				"$Consumer$", "LongConsumer",
+				"$Iterator$", "PrimitiveIterator.OfLong",
+				"$next$", "nextLong",
+				"$Spliterator$", "Spliterator.OfLong",
+				"$Stream$", "LongStream",
+				"$stream$", "longStream",
+				"$characteristics$", "ORDERED | SIZED | SUBSIZED | NONNULL",
+				"$newArray$", "new long[length]"));
+		KINDS.put("Double", kind(
+				"$Name$", "Double",
+				"$type$", "double",
+				"$erased$", "double",
+				"$generic$", "",
+				"$wildcard$", "",
+				"$empty$", "-1",
+				"$Consumer$", "DoubleConsumer",
+				"$Iterator$", "PrimitiveIterator.OfDouble",
+				"$next$", "nextDouble",
+				"$Spliterator$", "Spliterator.OfDouble",
+				"$Stream$", "DoubleStream",
+				"$stream$", "doubleStream",
+				"$characteristics$", "ORDERED | SIZED | SUBSIZED | NONNULL",
+				"$newArray$", "new double[length]"));
+		KINDS.put("Ref", kind(
+				"$Name$", "Ref",
+				"$type$", "T",
+				"$erased$", "Object",
+				"$generic$", "<T>",
+				"$wildcard$", "<?>",
+				"$empty$", "null",
+				"$Consumer$", "Consumer<? super T>",
+				"$Iterator$", "Iterator<T>",
+				"$next$", "next",
+				"$Spliterator$", "Spliterator<T>",
+				"$Stream$", "Stream<T>",
+				"$stream$", "stream",
+				"$characteristics$", "ORDERED | SIZED | SUBSIZED",
+				"$newArray$", "(T[]) new Object[length]"));
+	}
+
+	private static Map<String, String> kind(String... pairs) {
+		/*
+		 * Helper function
+		 * Builds the token table of one element kind from token, replacement pairs.
+		 */
+		Map<String, String> ret = new LinkedHashMap<>();
+		for (int i = 0; i < pairs.length; i += 2) {
+			ret.put(pairs[i], pairs[i + 1]);
+		}
+		return ret;
+	}
+
+	public static void main(String[] args) throws IOException {
+		Path templateDir = Paths.get(args.length > 0 ? args[0] : "templates");
+		Path outputDir = Paths.get(args.length > 1 ? args[1] : "generated");
+		Files.createDirectories(outputDir);
+		List<Path> templates = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(templateDir, "*.java.template")) {
+			for (Path file : files) {
+				templates.add(file);
+			}
+		}
+		if (templates.isEmpty()) {
+			throw new IllegalArgumentException("no *.java.template files in " + templateDir);
+		}
+		for (Path template : templates) {
+			String source = new String(Files.readAllBytes(template), StandardCharsets.UTF_8);
+			String templateName = template.getFileName().toString();
+			String baseName = templateName.substring(0, templateName.length() - ".java.template".length());
+			for (Map.Entry<String, Map<String, String>> kind : KINDS.entrySet()) {
+				Path out = outputDir.resolve(kind.getKey() + baseName + ".java");
+				String header = "// Generated by Generate.java from templates/" + templateName + ", do not edit.\n";
+				Files.write(out, (header + expand(source, kind.getKey(), kind.getValue())).getBytes(StandardCharsets.UTF_8));
+				System.out.println("wrote " + out);
+			}
+		}
+	}
+
+	static String expand(String source, String name, Map<String, String> tokens) {
+		/*
+		 * Turns a template into the source for one element kind:
+		 * drops the //#if blocks that are not for this kind, then replaces $eq(a, b)$ and every other token.
+		 * Throws IllegalArgumentException on an unknown token or an unbalanced //#if, so a broken template fails the build.
+		 */
+		StringBuilder kept = new StringBuilder();
+		boolean keep = true;
+		boolean inBlock = false;
+		for (String line : source.split("\n", -1)) {
+			String trimmed = line.trim();
+			if (trimmed.startsWith("//#if ")) {
+				if (inBlock) {
+					throw new IllegalArgumentException("nested //#if: " + line);
+				}
+				inBlock = true;
+				keep = List.of(trimmed.substring("//#if ".length()).split(",")).contains(name);
+				continue;
+			}
+			if (trimmed.equals("//#endif")) {
+				if (!inBlock) {
+					throw new IllegalArgumentException("//#endif without //#if");
+				}
+				inBlock = false;
+				keep = true;
+				continue;
+			}
+			if (keep) {
+				kept.append(line).append('\n');
+			}
+		}
+		if (inBlock) {
+			throw new IllegalArgumentException("//#if without //#endif");
+		}
+		String ret = kept.substring(0, kept.length() - 1);
+
+		Matcher eq = EQ.matcher(ret);
+		StringBuilder replaced = new StringBuilder();
+		while (eq.find()) {
+			String a = eq.group(1).trim();
+			String b = eq.group(2).trim();
+			String test;
+			if (name.equals("Ref")) {
+				test = "Objects.equals(" + a + ", " + b + ")";
+			} else if (name.equals("Double")) {
+				// compares the bits like Double.equals(), so NaN equals NaN and 0.0 differs from -0.0
+				test = "(Double.doubleToLongBits(" + a + ") == Double.doubleToLongBits(" + b + "))";
+			} else {
+				test = "(" + a + " == " + b + ")";
+			}
+			eq.appendReplacement(replaced, Matcher.quoteReplacement(test));
+		}
+		eq.appendTail(replaced);
+		ret = replaced.toString();
+
+		for (Map.Entry<String, String> token : tokens.entrySet()) {
+			ret = ret.replace(token.getKey(), token.getValue());
+		}
+		Matcher unknown = TOKEN.matcher(ret);
+		if (unknown.find()) {
+			throw new IllegalArgumentException("unknown token " + unknown.group() + " for " + name);
+		}
+		return ret;
+	}
+
+}
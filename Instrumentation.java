@@ -0,0 +1,256 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/*
+ * Author: Khanh Nguyen
+ * File: Instrumentation.java
+ * Purpose: This file implements Instrumentation, the metrics that InstrumentedQueue and InstrumentedStack keep about
+ * 			the structure they wrap: operation count and rate, current and peak size, Array grow/shrink events and the
+ * 			time spent in them, and a LatencyHistogram of single operations.
+ * 			Every counter is a LongAdder (or a LongAccumulator for the peak), which keeps one cell per contending thread,
+ * 			so recording never takes a lock and threads using the same structure do not contend on the metrics.
+ * Resizes: the wrapped structure reports nothing itself. If it has an Array capacity (ArrayStack, ArrayQueue,
+ * 			IntArrayDeque), the capacity is read before and after each operation, and an operation that changed it
+ * 			is counted as a grow or a shrink, with its whole duration added to the resize time.
+ * Peak size: the size is read after every operation, but only for the single-threaded structures, whose size() is
+ * 			a plain field read. The others would pay for it on every operation (BlockingArrayQueue and BlockingArrayStack
+ * 			take their lock, ShardedArrayQueue and ConcurrentListStack walk their shards or their list, and the
+ * 			lock-free ones read fields the other threads are writing), so their peak size is reported as -1.
+ * Methods: the getters of InstrumentationMXBean, reset(), and register()/unregister() to publish the metrics over JMX
+ * 			under the name "StackAndQueue:type=<type>,name=<name>".
+ */
+public class Instrumentation implements InstrumentationMXBean {
+
+	private final String type;
+	private final String name;
+	private final IntSupplier size;
+	private final IntSupplier capacity;
+	private final boolean trackPeak;
+	private final LongAdder operations;
+	private final LongAccumulator peakSize;
+	private final LongAdder grows;
+	private final LongAdder shrinks;
+	private final LongAdder resizeNanos;
+	private final LatencyHistogram latency;
+	private volatile long startNanos;
+	private ObjectName registeredAs;
+
+	Instrumentation(String type, String name, Object structure, IntSupplier size) {
+		/*
+		 * Constructor, only called by the Instrumented wrappers.
+		 * Argument structure -- is the wrapped Stack or Queue.
+		 * Argument size -- reads the current number of elements of the wrapped structure.
+		 */
+		this.type = type;
+		this.name = name;
+		this.size = size;
+		this.capacity = capacityOf(structure);
+		this.trackPeak = hasCheapSize(structure);
+		this.operations = new LongAdder();
+		this.peakSize = new LongAccumulator(Math::max, 0);
+		this.grows = new LongAdder();
+		this.shrinks = new LongAdder();
+		this.resizeNanos = new LongAdder();
+		this.latency = new LatencyHistogram();
+		this.startNanos = System.nanoTime();
+	}
+
+	private static boolean hasCheapSize(Object structure) {
+		/*
+		 * Returns true if structure is single-threaded and its size() is O(1) without a lock.
+		 */
+		return structure instanceof ArrayStack || structure instanceof ListStack || structure instanceof VersionedStack
+				|| structure instanceof DurableArrayStack || structure instanceof ArrayQueue
+				|| structure instanceof ListQueue || structure instanceof UnrolledListQueue
+				|| structure instanceof IntArrayDeque || structure instanceof IntPriorityQueue
+				|| structure instanceof MappedFileQueue;
+	}
+
+	private static IntSupplier capacityOf(Object structure) {
+		/*
+		 * Returns a reader for the Array capacity of structure, or null for structures without one.
+		 */
+		if (structure instanceof ArrayStack) {
+			return ((ArrayStack) structure)::capacity;
+		}
+		if (structure instanceof ArrayQueue) {
+			return ((ArrayQueue) structure)::capacity;
+		}
+		if (structure instanceof IntArrayDeque) {
+			return ((IntArrayDeque) structure)::capacity;
+		}
+		return null;
+	}
+
+	int capacityBefore() {
+		/*
+		 * Called by the wrappers before an operation that can resize.
+		 * Returns the current capacity, or -1 if it is not tracked.
+		 */
+		return capacity == null ? -1 : capacity.getAsInt();
+	}
+
+	void record(long start, int capacityBefore, long elements) {
+		/*
+		 * Called by the wrappers after an operation that changes the size.
+		 * Argument start -- is System.nanoTime() from before the operation.
+		 * Argument capacityBefore -- is what capacityBefore() returned before the operation.
+		 * Argument elements -- is the number of elements the operation moved, 1 for a single operation.
+		 * A batch operation adds elements to the operation count but only one latency to the histogram.
+		 */
+		long nanos = System.nanoTime() - start;
+		operations.add(elements);
+		if (elements == 1) {
+			latency.record(nanos);
+		}
+		if (trackPeak) {
+			peakSize.accumulate(size.getAsInt());
+		}
+		if (capacityBefore >= 0) {
+			int capacityAfter = capacity.getAsInt();
+			if (capacityAfter != capacityBefore) {
+				(capacityAfter > capacityBefore ? grows : shrinks).increment();
+				resizeNanos.add(nanos);
+			}
+		}
+	}
+
+	void recordRead(long start) {
+		/*
+		 * Called by the wrappers after peek(), which changes nothing but is still timed.
+		 */
+		operations.increment();
+		latency.record(System.nanoTime() - start);
+	}
+
+	public synchronized ObjectName register() {
+		/*
+		 * register() publishes the metrics on the platform MBeanServer and returns the name it used.
+		 * Calling it again returns the same name. Throws IllegalStateException if JMX refuses the registration,
+		 * for example because another structure is already registered with the same type and name.
+		 */
+		if (registeredAs != null) {
+			return registeredAs;
+		}
+		try {
+			ObjectName objectName = new ObjectName("StackAndQueue:type=" + type + ",name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			registeredAs = objectName;
+			return objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("could not register " + name + " over JMX", e);
+		}
+	}
+
+	public synchronized void unregister() {
+		/*
+		 * unregister() removes the metrics from the platform MBeanServer. Does nothing if they are not registered.
+		 */
+		if (registeredAs == null) {
+			return;
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			server.unregisterMBean(registeredAs);
+		} catch (JMException e) {
+			throw new IllegalStateException("could not unregister " + name + " from JMX", e);
+		}
+		registeredAs = null;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getOperations() {
+		return operations.sum();
+	}
+
+	@Override
+	public double getOperationsPerSecond() {
+		long elapsed = System.nanoTime() - startNanos;
+		return elapsed <= 0 ? 0 : operations.sum() * 1e9 / elapsed;
+	}
+
+	@Override
+	public int getSize() {
+		return size.getAsInt();
+	}
+
+	@Override
+	public long getPeakSize() {
+		return trackPeak ? peakSize.get() : -1;
+	}
+
+	@Override
+	public long getGrowCount() {
+		return grows.sum();
+	}
+
+	@Override
+	public long getShrinkCount() {
+		return shrinks.sum();
+	}
+
+	@Override
+	public long getResizeNanos() {
+		return resizeNanos.sum();
+	}
+
+	@Override
+	public long getLatencyP50Nanos() {
+		return latency.percentile(50);
+	}
+
+	@Override
+	public long getLatencyP99Nanos() {
+		return latency.percentile(99);
+	}
+
+	@Override
+	public long getLatencyP999Nanos() {
+		return latency.percentile(99.9);
+	}
+
+	@Override
+	public long getLatencyMaxNanos() {
+		return latency.max();
+	}
+
+	@Override
+	public long[] getLatencyBuckets() {
+		return latency.buckets();
+	}
+
+	@Override
+	public void reset() {
+		operations.reset();
+		peakSize.reset();
+		if (trackPeak) {
+			peakSize.accumulate(size.getAsInt());
+		}
+		grows.reset();
+		shrinks.reset();
+		resizeNanos.reset();
+		latency.reset();
+		startNanos = System.nanoTime();
+	}
+
+	public String toString() {
+		/*
+		 * Returns the main metrics on one line.
+		 */
+		return name + ": ops=" + getOperations() + String.format(" (%.0f/s)", getOperationsPerSecond())
+				+ " size=" + getSize() + " peak=" + getPeakSize()
+				+ " grows=" + getGrowCount() + " shrinks=" + getShrinkCount() + " resizeNanos=" + getResizeNanos()
+				+ " p50=" + getLatencyP50Nanos() + "ns p99=" + getLatencyP99Nanos() + "ns max=" + getLatencyMaxNanos() + "ns";
+	}
+
+}
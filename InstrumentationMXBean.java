@@ -0,0 +1,70 @@
+/*
+ * The management interface of Instrumentation, so the metrics of an InstrumentedQueue or InstrumentedStack
+ * can be read with any JMX client (jconsole, VisualVM, ...) once Instrumentation.register() has been called.
+ */
+public interface InstrumentationMXBean {
+
+    /*
+     * Returns the name the structure was registered under.
+     */
+    String getName();
+
+    /*
+     * Returns the number of operations since the start or the last reset.
+     * A batch operation counts once per element it moved.
+     */
+    long getOperations();
+
+    /*
+     * Returns the operations per second since the start or the last reset.
+     */
+    double getOperationsPerSecond();
+
+    /*
+     * Returns the current number of elements.
+     */
+    int getSize();
+
+    /*
+     * Returns the largest number of elements seen after an operation,
+     * or -1 if the structure is concurrent or its size is too expensive to read after every operation.
+     */
+    long getPeakSize();
+
+    /*
+     * Returns the number of operations that grew the underlying Array,
+     * or 0 for structures without an Array capacity.
+     */
+    long getGrowCount();
+
+    /*
+     * Returns the number of operations that shrank the underlying Array.
+     */
+    long getShrinkCount();
+
+    /*
+     * Returns the total time, in ns, of the operations that resized the underlying Array.
+     */
+    long getResizeNanos();
+
+    /*
+     * Latency percentiles of single operations, in ns, rounded up to a power of two.
+     */
+    long getLatencyP50Nanos();
+
+    long getLatencyP99Nanos();
+
+    long getLatencyP999Nanos();
+
+    long getLatencyMaxNanos();
+
+    /*
+     * Returns the latency histogram; entry b counts the operations that took 2^(b-1) to 2^b - 1 ns.
+     */
+    long[] getLatencyBuckets();
+
+    /*
+     * Sets every counter and the histogram back to 0. The peak size restarts at the current size.
+     */
+    void reset();
+}
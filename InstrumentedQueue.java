@@ -0,0 +1,134 @@
+import java.io.IOException;
+
+/*
+ * Author: Khanh Nguyen
+ * File: InstrumentedQueue.java
+ * Purpose: This file implement the InstrumentedQueue Class that implements QueueInterface.
+ * 			InstrumentedQueue wraps any QueueInterface and passes every call through to it, while recording
+ * 			operation counts, current and peak size, Array resizes and per-operation latency in an Instrumentation.
+ * 			Each timed call costs two System.nanoTime() reads and a few LongAdder adds on top of the wrapped call.
+ * 			The wrapper adds no locking: it is exactly as thread-safe as the Queue it wraps, while the metrics
+ * 			themselves can be recorded and read from any number of threads.
+ * Methods: The basic methods for a Queue is implemented, including dequeue(); enqueue(); peek();isEmpty(); size(); clear() and toString();
+ * 			plus enqueueAll() and drainTo(), which count one operation per element moved, and metrics().
+ * 			Call metrics().register() to publish the metrics as a JMX MBean.
+ */
+public class InstrumentedQueue implements QueueInterface {
+
+	private final QueueInterface queue;
+	private final Instrumentation metrics;
+
+	public InstrumentedQueue(QueueInterface queue, String name) {
+		/*
+		 * Constructor
+		 * Argument queue -- is the Queue to wrap. It should only be used through this wrapper from now on.
+		 * Argument name -- identifies the Queue in the metrics and in JMX.
+		 */
+		this.queue = queue;
+		this.metrics = new Instrumentation("Queue", name, queue, queue::size);
+	}
+
+	public Instrumentation metrics() {
+		/*
+		 * Returns the metrics of this Queue.
+		 */
+		return metrics;
+	}
+
+	@Override
+	public void enqueue(int value) {
+		/*
+		 * This method adds a new element to the end of the wrapped Queue and records it.
+		 */
+		int capacity = metrics.capacityBefore();
+		long start = System.nanoTime();
+		queue.enqueue(value);
+		metrics.record(start, capacity, 1);
+	}
+
+	@Override
+	public void enqueueAll(int[] src, int off, int len) {
+		/*
+		 * This method adds len elements of src, starting at index off, to the wrapped Queue and records them.
+		 */
+		int capacity = metrics.capacityBefore();
+		long start = System.nanoTime();
+		queue.enqueueAll(src, off, len);
+		metrics.record(start, capacity, len);
+	}
+
+	@Override
+	public int dequeue() {
+		/*
+		 * This method removes the element at the start of the wrapped Queue and records it.
+		 * If empty Queue, returns -1.
+		 */
+		int capacity = metrics.capacityBefore();
+		long start = System.nanoTime();
+		int ret = queue.dequeue();
+		metrics.record(start, capacity, 1);
+		return ret;
+	}
+
+	@Override
+	public int drainTo(int[] dst, int max) {
+		/*
+		 * This method removes up to max elements from the wrapped Queue into dst and records them.
+		 */
+		int capacity = metrics.capacityBefore();
+		long start = System.nanoTime();
+		int n = queue.drainTo(dst, max);
+		metrics.record(start, capacity, n);
+		return n;
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * peek() returns the value of the front element of the wrapped Queue, and records its latency.
+		 */
+		long start = System.nanoTime();
+		int ret = queue.peek();
+		metrics.recordRead(start);
+		return ret;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return queue.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		return queue.size();
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears the wrapped Queue. It is not counted as an operation, but a resize it causes is.
+		 */
+		int capacity = metrics.capacityBefore();
+		long start = System.nanoTime();
+		queue.clear();
+		metrics.record(start, capacity, 0);
+	}
+
+	public String toString() {
+		return queue.toString();
+	}
+
+	@Override
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() and toArray() read the wrapped Queue and, like toString(), are not counted as operations.
+		 */
+		queue.appendTo(out, limit);
+	}
+
+	@Override
+	public int[] toArray() {
+		return queue.toArray();
+	}
+
+}
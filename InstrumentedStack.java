@@ -0,0 +1,134 @@
+import java.io.IOException;
+
+/*
+ * Author: Khanh Nguyen
+ * File: InstrumentedStack.java
+ * Purpose: This file implement the InstrumentedStack Class that implements StackInterface.
+ * 			InstrumentedStack wraps any StackInterface and passes every call through to it, while recording
+ * 			operation counts, current and peak size, Array resizes and per-operation latency in an Instrumentation.
+ * 			Each timed call costs two System.nanoTime() reads and a few LongAdder adds on top of the wrapped call.
+ * 			The wrapper adds no locking: it is exactly as thread-safe as the Stack it wraps, while the metrics
+ * 			themselves can be recorded and read from any number of threads.
+ * Methods: The basic methods for a Stack is implemented, including pop(); push(); peek();isEmpty(); size(); clear() and toString();
+ * 			plus pushAll() and popInto(), which count one operation per element moved, and metrics().
+ * 			Call metrics().register() to publish the metrics as a JMX MBean.
+ */
+public class InstrumentedStack implements StackInterface {
+
+	private final StackInterface stack;
+	private final Instrumentation metrics;
+
+	public InstrumentedStack(StackInterface stack, String name) {
+		/*
+		 * Constructor
+		 * Argument stack -- is the Stack to wrap. It should only be used through this wrapper from now on.
+		 * Argument name -- identifies the Stack in the metrics and in JMX.
+		 */
+		this.stack = stack;
+		this.metrics = new Instrumentation("Stack", name, stack, stack::size);
+	}
+
+	public Instrumentation metrics() {
+		/*
+		 * Returns the metrics of this Stack.
+		 */
+		return metrics;
+	}
+
+	@Override
+	public void push(int value) {
+		/*
+		 * push() pushes a new element on top of the wrapped Stack and records it.
+		 */
+		int capacity = metrics.capacityBefore();
+		long start = System.nanoTime();
+		stack.push(value);
+		metrics.record(start, capacity, 1);
+	}
+
+	@Override
+	public void pushAll(int[] src, int off, int len) {
+		/*
+		 * pushAll() pushes len elements of src, starting at index off, onto the wrapped Stack and records them.
+		 */
+		int capacity = metrics.capacityBefore();
+		long start = System.nanoTime();
+		stack.pushAll(src, off, len);
+		metrics.record(start, capacity, len);
+	}
+
+	@Override
+	public int pop() {
+		/*
+		 * pop() removes the element on top of the wrapped Stack and records it.
+		 * If empty Stack, returns -1.
+		 */
+		int capacity = metrics.capacityBefore();
+		long start = System.nanoTime();
+		int ret = stack.pop();
+		metrics.record(start, capacity, 1);
+		return ret;
+	}
+
+	@Override
+	public int popInto(int[] dst, int max) {
+		/*
+		 * popInto() pops up to max elements of the wrapped Stack into dst and records them.
+		 */
+		int capacity = metrics.capacityBefore();
+		long start = System.nanoTime();
+		int n = stack.popInto(dst, max);
+		metrics.record(start, capacity, n);
+		return n;
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * peek() returns the value of the top element of the wrapped Stack, and records its latency.
+		 */
+		long start = System.nanoTime();
+		int ret = stack.peek();
+		metrics.recordRead(start);
+		return ret;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return stack.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		return stack.size();
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears the wrapped Stack. It is not counted as an operation, but a resize it causes is.
+		 */
+		int capacity = metrics.capacityBefore();
+		long start = System.nanoTime();
+		stack.clear();
+		metrics.record(start, capacity, 0);
+	}
+
+	public String toString() {
+		return stack.toString();
+	}
+
+	@Override
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() and toArray() read the wrapped Stack and, like toString(), are not counted as operations.
+		 */
+		stack.appendTo(out, limit);
+	}
+
+	@Override
+	public int[] toArray() {
+		return stack.toArray();
+	}
+
+}
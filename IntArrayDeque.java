@@ -0,0 +1,549 @@
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/*
+ * Author: Khanh Nguyen
+ * File: IntArrayDeque.java
+ * Purpose: This file implement the IntArrayDeque Class that implements both StackInterface and QueueInterface.
+ * 			IntArrayDeque is a double-ended queue of ints over a single circular int Array, and the recommended
+ * 			default when a plain (not thread-safe) Stack or Queue is needed: every operation at either end is O(1),
+ * 			with no Node objects and no shifting.
+ * 			head is the index of the first element and the elements wrap around to the start of the Array, like ArrayQueue.
+ * 			The Array length is always a power of two, so wrapping an index is a single mask.
+ * 			The first element is both the top of the Stack and the front of the Queue:
+ * 			push() and pop() work at the front, enqueue() adds at the back and dequeue() removes at the front,
+ * 			so peek() returns the element the next pop() or dequeue() would remove.
+ * Methods: addFirst(); addLast(); pollFirst(); pollLast(); peekFirst(); peekLast(), plus the Stack and Queue methods
+ * 			pop(); push(); dequeue(); enqueue(); peek();isEmpty(); size(); clear() and toString();
+ * 			the batch methods pushAll(); popInto(); enqueueAll() and drainTo(); capacity() and ensureCapacity();
+ * 			and forEach(); iterator(); spliterator() and stream(), which go from the first element to the last.
+ * This class also overrides Java equals(Object) method to accurately compare IntArrayDeques.
+ * Hashing: hashCode() is a SequenceHash of the elements from first to last, kept up to date at both ends, so it is O(1),
+ * 			and equals() rejects Deques of a different size or hash without looking at their elements.
+ * Text: toString() and appendTo() write the elements from first to last, one at a time, and appendTo() can stop after
+ * 			a given number of elements. The first element is both the top and the front, so toArray() and appendTo()
+ * 			give the same result whether the Deque is used as a Stack or as a Queue. Used as a Stack, that is top to bottom,
+ * 			the opposite of the bottom-to-top order of the Stack classes; StackInterface.appendTo() documents this exception.
+ */
+public class IntArrayDeque implements StackInterface, QueueInterface {
+
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private int[] items;
+	private int head;
+	private int size;
+	private int mask;
+	// SequenceHash of the elements from first to last, and SequenceHash.BASE to the power of size
+	private int hash;
+	private int power = 1;
+
+	public IntArrayDeque() {
+		/*
+		 * Constructor
+		 * Initialize an empty IntArrayDeque object. The underlying Array is set to size 16.
+		 */
+		this(16);
+	}
+
+	public IntArrayDeque(int initialCapacity) {
+		/*
+		 * Constructor
+		 * Initialize an empty IntArrayDeque object that holds initialCapacity elements before it grows.
+		 * The size of the underlying Array is rounded up to a power of two.
+		 */
+		if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("initialCapacity must be between 1 and 2^30");
+		}
+		this.items = new int[initialCapacity <= 1 ? 1 : Integer.highestOneBit(initialCapacity - 1) << 1];
+		this.mask = items.length - 1;
+		this.head = 0;
+		this.size = 0;
+	}
+
+	public IntArrayDeque(IntArrayDeque old) {
+		/*
+		 * Deep Copy constructor
+		 * takes an IntArrayDeque as argument and initialize a new IntArrayDeque with the same elements as the argument.
+		 * The elements are copied in order to the start of the new Array; the old Deque is not modified.
+		 */
+		this.items = new int[old.items.length];
+		this.mask = items.length - 1;
+		this.head = 0;
+		this.size = old.size;
+		this.hash = old.hash;
+		this.power = old.power;
+		old.copyTo(items);
+	}
+
+	public int capacity() {
+		/*
+		 * Returns the size of the underlying Array.
+		 */
+		return items.length;
+	}
+
+	public void ensureCapacity(int minCapacity) {
+		/*
+		 * ensureCapacity() doubles the underlying Array until it can hold minCapacity elements.
+		 * Does nothing if it already can.
+		 */
+		if (minCapacity > items.length) {
+			grow(minCapacity);
+		}
+	}
+
+	private void grow(int minCapacity) {
+		/*
+		 * Helper Function
+		 * Creates a new Array, doubling the size until it can hold minCapacity elements,
+		 * and copies the elements over in order, so the first element ends up at index 0 of the new Array.
+		 */
+		if (minCapacity > MAX_CAPACITY) {
+			throw new OutOfMemoryError("IntArrayDeque can not hold " + minCapacity + " elements");
+		}
+		int newLength = items.length;
+		while (newLength < minCapacity) {
+			newLength = newLength * 2;
+		}
+		int[] newItems = new int[newLength];
+		copyTo(newItems);
+		this.items = newItems;
+		this.mask = items.length - 1;
+		this.head = 0;
+	}
+
+	private void copyTo(int[] dest) {
+		/*
+		 * Helper Function
+		 * Copies the elements, first to last, to the start of dest, in at most two runs:
+		 * from head to the end of the Array, and the part that wrapped around to the start of the Array.
+		 */
+		int firstRun = Math.min(size, items.length - head);
+		System.arraycopy(items, head, dest, 0, firstRun);
+		System.arraycopy(items, 0, dest, firstRun, size - firstRun);
+	}
+
+	public void addFirst(int value) {
+		/*
+		 * addFirst() adds a new element before the first element.
+		 * Argument int value -- is the value of the new element to be added.
+		 */
+		if (size == items.length) {
+			grow(size + 1);
+		}
+		head = (head - 1) & mask;
+		items[head] = value;
+		size += 1;
+		hash = SequenceHash.term(value) + hash * SequenceHash.BASE;
+		power *= SequenceHash.BASE;
+	}
+
+	public void addLast(int value) {
+		/*
+		 * addLast() adds a new element after the last element.
+		 * Argument int value -- is the value of the new element to be added.
+		 */
+		if (size == items.length) {
+			grow(size + 1);
+		}
+		items[(head + size) & mask] = value;
+		size += 1;
+		hash += SequenceHash.term(value) * power;
+		power *= SequenceHash.BASE;
+	}
+
+	public int pollFirst() {
+		/*
+		 * pollFirst() removes the first element and returns its value.
+		 * If empty Deque, returns -1 and do nothing.
+		 */
+		if (size == 0) {
+			return -1;
+		}
+		int ret = items[head];
+		head = (head + 1) & mask;
+		size -= 1;
+		hash = (hash - SequenceHash.term(ret)) * SequenceHash.INVERSE;
+		power *= SequenceHash.INVERSE;
+		return ret;
+	}
+
+	public int pollLast() {
+		/*
+		 * pollLast() removes the last element and returns its value.
+		 * If empty Deque, returns -1 and do nothing.
+		 */
+		if (size == 0) {
+			return -1;
+		}
+		size -= 1;
+		int ret = items[(head + size) & mask];
+		power *= SequenceHash.INVERSE;
+		hash -= SequenceHash.term(ret) * power;
+		return ret;
+	}
+
+	public int peekFirst() {
+		/*
+		 * peekFirst() returns the value of the first element.
+		 * If empty Deque, returns -1.
+		 */
+		if (size == 0) {
+			return -1;
+		}
+		return items[head];
+	}
+
+	public int peekLast() {
+		/*
+		 * peekLast() returns the value of the last element.
+		 * If empty Deque, returns -1.
+		 */
+		if (size == 0) {
+			return -1;
+		}
+		return items[(head + size - 1) & mask];
+	}
+
+	@Override
+	public void push(int value) {
+		/*
+		 * push() adds a new element on top of the Stack, which is the front of the Deque.
+		 * Argument: int value -- is the value of the new element.
+		 */
+		addFirst(value);
+	}
+
+	@Override
+	public int pop() {
+		/*
+		 * pop() removes the element on top of the Stack, which is the front of the Deque.
+		 * Returns the value of the removed element.
+		 * If empty Stack, returns -1 and do nothing.
+		 */
+		return pollFirst();
+	}
+
+	@Override
+	public void enqueue(int value) {
+		/*
+		 * This method adds a new element to the end of the Queue.
+		 * Argument int value -- is the value of the new element to be added.
+		 */
+		addLast(value);
+	}
+
+	@Override
+	public int dequeue() {
+		/*
+		 * This method removes the element at the start of the Queue
+		 * Returns the value of the removed element
+		 * If empty Queue, returns -1 and do nothing
+		 */
+		return pollFirst();
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * peek() returns the value of the first element, which is both the top of the Stack and the front of the Queue.
+		 * If empty, returns -1.
+		 * This method does not alter the Deque in any way.
+		 */
+		return peekFirst();
+	}
+
+	@Override
+	public void pushAll(int[] src, int off, int len) {
+		/*
+		 * pushAll() pushes len elements of src, starting at index off, so src[off + len - 1] ends up on top.
+		 * The Array grows at most once. The elements go in front of head in reverse order, so they are written one by one.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		if (size + len > items.length) {
+			grow(size + len);
+		}
+		int h = head;
+		for (int i = off; i < off + len; i++) {
+			h = (h - 1) & mask;
+			items[h] = src[i];
+			hash = SequenceHash.term(src[i]) + hash * SequenceHash.BASE;
+			power *= SequenceHash.BASE;
+		}
+		head = h;
+		size += len;
+	}
+
+	@Override
+	public int popInto(int[] dst, int max) {
+		/*
+		 * popInto() pops up to max elements into dst, so dst[0] is the former top of the Stack.
+		 * Returns the number of elements removed.
+		 * The top of the Stack is the front of the Deque, so this is the same as drainTo().
+		 */
+		return drainTo(dst, max);
+	}
+
+	@Override
+	public void enqueueAll(int[] src, int off, int len) {
+		/*
+		 * This method adds len elements of src, starting at index off, to the end of the Queue in order.
+		 * The Array grows at most once, and the elements are copied in with at most two System.arraycopy calls.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		if (size + len > items.length) {
+			grow(size + len);
+		}
+		int tail = (head + size) & mask;
+		int firstRun = Math.min(len, items.length - tail);
+		System.arraycopy(src, off, items, tail, firstRun);
+		System.arraycopy(src, off + firstRun, items, 0, len - firstRun);
+		size += len;
+		for (int i = off; i < off + len; i++) {
+			hash += SequenceHash.term(src[i]) * power;
+			power *= SequenceHash.BASE;
+		}
+	}
+
+	@Override
+	public int drainTo(int[] dst, int max) {
+		/*
+		 * This method removes up to max elements from the front and stores them in order at the start of dst.
+		 * Returns the number of elements removed.
+		 * The elements are copied out with at most two System.arraycopy calls.
+		 */
+		int n = Math.max(0, Math.min(Math.min(max, dst.length), size));
+		int firstRun = Math.min(n, items.length - head);
+		System.arraycopy(items, head, dst, 0, firstRun);
+		System.arraycopy(items, 0, dst, firstRun, n - firstRun);
+		head = (head + n) & mask;
+		size -= n;
+		for (int i = 0; i < n; i++) {
+			hash = (hash - SequenceHash.term(dst[i])) * SequenceHash.INVERSE;
+			power *= SequenceHash.INVERSE;
+		}
+		return n;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the Deque is empty
+		 * returns false otherwise
+		 */
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in the Deque
+		 * if empty, returns 0.
+		 */
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears all element from the Deque.
+		 * The underlying Array is kept, since the elements are plain ints there is nothing to release.
+		 */
+		this.head = 0;
+		this.size = 0;
+		this.hash = 0;
+		this.power = 1;
+	}
+
+	private int get(int i) {
+		/*
+		 * Helper function that returns the i-th element, counting from the front.
+		 */
+		return items[(head + i) & mask];
+	}
+
+	public void forEach(IntConsumer action) {
+		/*
+		 * forEach() calls action on every element, from the first to the last.
+		 * This method does not alter the Deque in any way.
+		 */
+		Objects.requireNonNull(action);
+		int firstEnd = Math.min(head + size, items.length);
+		for (int i = head; i < firstEnd; i++) {
+			action.accept(items[i]);
+		}
+		int secondEnd = size - (firstEnd - head);
+		for (int i = 0; i < secondEnd; i++) {
+			action.accept(items[i]);
+		}
+	}
+
+	public PrimitiveIterator.OfInt iterator() {
+		/*
+		 * iterator() returns an iterator over the elements, from the first to the last.
+		 */
+		return new PrimitiveIterator.OfInt() {
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+
+			@Override
+			public int nextInt() {
+				if (index >= size) {
+					throw new NoSuchElementException();
+				}
+				index += 1;
+				return get(index - 1);
+			}
+		};
+	}
+
+	public Spliterator.OfInt spliterator() {
+		/*
+		 * spliterator() returns a Spliterator over the elements, from the first to the last.
+		 * It splits by halving its range of positions, with no copy.
+		 */
+		return new Elements(items, head, 0, size);
+	}
+
+	public IntStream stream() {
+		/*
+		 * stream() returns an IntStream of the elements, from the first to the last.
+		 * Call parallel() on it to run it on several threads.
+		 */
+		return StreamSupport.intStream(spliterator(), false);
+	}
+
+	private static final class Elements implements Spliterator.OfInt {
+		/*
+		 * Spliterator over the Deque positions from index to end - 1, position i being items[(head + i) & mask].
+		 * trySplit() hands out the first half of the positions.
+		 */
+		private final int[] items;
+		private final int head;
+		private int index;
+		private final int end;
+
+		Elements(int[] items, int head, int index, int end) {
+			this.items = items;
+			this.head = head;
+			this.index = index;
+			this.end = end;
+		}
+
+		@Override
+		public boolean tryAdvance(IntConsumer action) {
+			Objects.requireNonNull(action);
+			if (index >= end) {
+				return false;
+			}
+			action.accept(items[(head + index) & (items.length - 1)]);
+			index += 1;
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(IntConsumer action) {
+			Objects.requireNonNull(action);
+			int mask = items.length - 1;
+			int i = index;
+			index = end;
+			for (; i < end; i++) {
+				action.accept(items[(head + i) & mask]);
+			}
+		}
+
+		@Override
+		public Spliterator.OfInt trySplit() {
+			int mid = (index + end) >>> 1;
+			if (mid <= index) {
+				return null;
+			}
+			Elements prefix = new Elements(items, head, index, mid);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return end - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL;
+		}
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the Deque, from the first element to the last.
+		 * The format is similar to how an Array is represented in String.
+		 */
+		return ElementFormat.toString(iterator());
+	}
+
+	@Override
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() writes at most limit elements to out, from the first element to the last, in the toString() format.
+		 * It overrides the methods of both StackInterface and QueueInterface, and reads the Array in place.
+		 * It follows the Queue order, so a Deque used as a Stack is written from top to bottom, not bottom to top.
+		 */
+		ElementFormat.appendTo(out, iterator(), limit);
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from first to last,
+		 * the order both pop() and dequeue() would return them.
+		 */
+		int[] ret = new int[size];
+		copyTo(ret);
+		return ret;
+	}
+
+	@Override
+	public boolean equals(Object deque2) {
+		/*
+		 * This method overrides Java equals(Object) method to accurately compares 2 IntArrayDeque.
+		 * If the argument is not an instance of IntArrayDeque, returns false.
+		 *
+		 * If both Deque has all the same elements in the same order, returns true.
+		 * Returns false otherwise
+		 * Deques of different sizes or hashes are rejected without looking at any element.
+		 */
+		if (!(deque2 instanceof IntArrayDeque)) {
+			return false;
+		}
+		IntArrayDeque other = (IntArrayDeque) deque2;
+		if (size != other.size || hash != other.hash) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (get(i) != other.get(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		/*
+		 * hashCode() returns the SequenceHash of the elements, from first to last. It is O(1).
+		 */
+		return hash;
+	}
+
+}
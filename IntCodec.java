@@ -0,0 +1,209 @@
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/*
+ * Author: Khanh Nguyen
+ * File: IntCodec.java
+ * Purpose: This file implements IntCodec, a compact binary format for the contents of any Stack or Queue,
+ * 			so they can be written to a ByteBuffer and sent to another process or saved, then loaded back in bulk.
+ * Format: one format byte, the number of elements as a varint, then one varint per element.
+ * 			A varint stores 7 bits per byte, low bits first, and sets the high bit of every byte but the last,
+ * 			so small numbers take one byte and no int takes more than five.
+ * 			Every element is zigzag encoded first ((v << 1) ^ (v >> 31)), which maps 0, -1, 1, -2, ... to 0, 1, 2, 3, ...,
+ * 			so small negative numbers stay small too.
+ * 			With the DELTA format each element is stored as its difference from the previous one (the first one from 0),
+ * 			which is much smaller for sorted or slowly changing contents such as timestamps or ids.
+ * 			encode() measures both formats in one pass and writes the smaller one, so the reader never needs to be told.
+ * Order: a Queue is written from front to back and a Stack from bottom to top, so readQueue() and readStack() rebuild
+ * 			the same structure with a single enqueueAll() or pushAll(), which grows the underlying Array at most once.
+ * Methods: encode(); decode(); encodedSize(); maxEncodedSize(); writeQueue(); readQueue(); writeStack() and readStack().
+ * 			Malformed input throws IllegalArgumentException (or BufferUnderflowException if it is cut short);
+ * 			in both cases nothing is added to the target structure and the buffer position is left where it was.
+ */
+public final class IntCodec {
+
+	static final byte VALUES = 0;
+	static final byte DELTA = 1;
+
+	private IntCodec() {
+	}
+
+	private static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private static int unzigzag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static int varintSize(int value) {
+		/*
+		 * Helper function
+		 * Returns the number of bytes value takes as a varint, treating it as unsigned: 1 to 5.
+		 */
+		return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+	}
+
+	private static void putVarint(ByteBuffer out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	private static int getVarint(ByteBuffer in) {
+		/*
+		 * Helper function
+		 * Reads one varint. Throws IllegalArgumentException if it is longer than five bytes or does not fit in an int.
+		 */
+		int ret = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = in.get();
+			if (shift == 28 && (b & 0xF0) != 0) {
+				throw new IllegalArgumentException("varint does not fit in an int");
+			}
+			ret |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return ret;
+			}
+		}
+		throw new IllegalArgumentException("varint longer than 5 bytes");
+	}
+
+	public static int maxEncodedSize(int count) {
+		/*
+		 * maxEncodedSize() returns the most bytes encode() can need for count elements, whatever their values.
+		 * Throws IllegalArgumentException if that is more than a ByteBuffer can hold.
+		 */
+		long ret = 1 + 5 + 5L * count;
+		if (count < 0 || ret > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("count must be between 0 and " + (Integer.MAX_VALUE - 6) / 5);
+		}
+		return (int) ret;
+	}
+
+	public static int encodedSize(int[] values, int off, int len) {
+		/*
+		 * encodedSize() returns the exact number of bytes encode() writes for len elements of values, starting at off.
+		 */
+		return (int) (measure(values, off, len) >>> 1) + 1 + varintSize(len);
+	}
+
+	private static long measure(int[] values, int off, int len) {
+		/*
+		 * Helper function
+		 * Measures both formats in one pass. Returns twice the size of the elements in the smaller format,
+		 * plus 1 if that format is DELTA.
+		 */
+		Objects.checkFromIndexSize(off, len, values.length);
+		long plain = 0;
+		long delta = 0;
+		int previous = 0;
+		for (int i = off; i < off + len; i++) {
+			plain += varintSize(zigzag(values[i]));
+			delta += varintSize(zigzag(values[i] - previous));
+			previous = values[i];
+		}
+		return delta < plain ? delta * 2 + 1 : plain * 2;
+	}
+
+	public static void encode(int[] values, int off, int len, ByteBuffer out) {
+		/*
+		 * encode() writes len elements of values, starting at off, to out in the smaller of the two formats.
+		 * Throws BufferOverflowException, before writing anything, if out does not have room for all of them.
+		 */
+		long measured = measure(values, off, len);
+		byte format = (measured & 1) == 1 ? DELTA : VALUES;
+		if (out.remaining() < (measured >>> 1) + 1 + varintSize(len)) {
+			throw new BufferOverflowException();
+		}
+		out.put(format);
+		putVarint(out, len);
+		int previous = 0;
+		for (int i = off; i < off + len; i++) {
+			if (format == DELTA) {
+				putVarint(out, zigzag(values[i] - previous));
+				previous = values[i];
+			} else {
+				putVarint(out, zigzag(values[i]));
+			}
+		}
+	}
+
+	public static int[] decode(ByteBuffer in) {
+		/*
+		 * decode() reads one encoded sequence from in and returns its elements, in the order they were written.
+		 * On malformed input the position of in is restored and IllegalArgumentException or BufferUnderflowException
+		 * is thrown.
+		 */
+		int start = in.position();
+		try {
+			byte format = in.get();
+			if (format != VALUES && format != DELTA) {
+				throw new IllegalArgumentException("unknown format " + format);
+			}
+			int len = getVarint(in);
+			// every element takes at least one byte, so a larger count can only come from corrupt input
+			if (len < 0 || len > in.remaining()) {
+				throw new IllegalArgumentException("count " + Integer.toUnsignedString(len) + " is larger than the input");
+			}
+			int[] ret = new int[len];
+			int previous = 0;
+			for (int i = 0; i < len; i++) {
+				int value = unzigzag(getVarint(in));
+				if (format == DELTA) {
+					value += previous;
+					previous = value;
+				}
+				ret[i] = value;
+			}
+			return ret;
+		} catch (IllegalArgumentException | BufferUnderflowException e) {
+			in.position(start);
+			throw e;
+		}
+	}
+
+	public static void writeQueue(QueueInterface queue, ByteBuffer out) {
+		/*
+		 * writeQueue() writes the elements of queue to out, from front to back. The Queue is not changed.
+		 */
+		int[] values = queue.toArray();
+		encode(values, 0, values.length, out);
+	}
+
+	public static void readQueue(ByteBuffer in, QueueInterface queue) {
+		/*
+		 * readQueue() reads a sequence written by writeQueue() and adds its elements to the back of queue,
+		 * with a single enqueueAll().
+		 */
+		int[] values = decode(in);
+		queue.enqueueAll(values, 0, values.length);
+	}
+
+	public static void writeStack(StackInterface stack, ByteBuffer out) {
+		/*
+		 * writeStack() writes the elements of stack to out, from bottom to top. The Stack is not changed.
+		 */
+		int[] values = stack.toArray();
+		for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+			int swap = values[i];
+			values[i] = values[j];
+			values[j] = swap;
+		}
+		encode(values, 0, values.length, out);
+	}
+
+	public static void readStack(ByteBuffer in, StackInterface stack) {
+		/*
+		 * readStack() reads a sequence written by writeStack() and pushes its elements onto stack,
+		 * bottom first, with a single pushAll(), so the old top of the written Stack is the new top.
+		 */
+		int[] values = decode(in);
+		stack.pushAll(values, 0, values.length);
+	}
+
+}
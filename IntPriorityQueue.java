@@ -0,0 +1,458 @@
+import java.util.Arrays;
+import java.util.Objects;
+
+/*
+ * Author: Khanh Nguyen
+ * File: IntPriorityQueue.java
+ * Purpose: This file implement the IntPriorityQueue Class that implements QueueInterface.
+ * 			IntPriorityQueue is a priority Queue: dequeue() always removes the smallest element, whatever order the
+ * 			elements were enqueued in. It is a d-ary min-heap stored in a primitive int Array, so there is no boxing.
+ * 			The children of the element at index i are at indexes arity*i+1 to arity*i+arity, and its parent is at
+ * 			(i-1)/arity. A wider heap is shallower, so dequeue() does fewer levels, and the children it compares on each
+ * 			level sit next to each other in the Array: a 4-ary heap (the default) usually beats a binary heap.
+ * Position index: when the Queue is created with a keyLimit, every element must be a distinct value between 0 and
+ * 			keyLimit - 1, and the Queue keeps the index of every element in the heap. decreaseKey() and contains()
+ * 			then find an element in O(1) instead of searching the heap.
+ * Methods: The basic methods for a Queue is implemented, including dequeue(); enqueue(); peek();isEmpty(); size(); clear() and toString();
+ * 			plus heapify(), which replaces the contents with the elements of an Array in O(n), enqueueAll(), drainTo(),
+ * 			decreaseKey() and contains().
+ * 			toString(), appendTo() and toArray() list the elements in the order dequeue() would return them,
+ * 			which takes a sorted copy of the heap.
+ * This class also overrides Java equals(Object) method: two IntPriorityQueues are equal if they hold the same elements.
+ * Hashing: hashCode() is the sum of SequenceHash.mix() over the elements, which does not depend on the heap layout.
+ * 			It is kept up to date by every enqueue, dequeue and decreaseKey, so it is O(1), and equals() only sorts
+ * 			the two heaps when their sizes and hashes match.
+ */
+public class IntPriorityQueue implements QueueInterface {
+
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	private final int arity;
+	private int[] heap;
+	private int size;
+	// sum of SequenceHash.mix() over the elements
+	private int hash;
+	// positions[value] is the index of value in heap, or -1; null when there is no position index
+	private final int[] positions;
+
+	public IntPriorityQueue() {
+		/*
+		 * Constructor
+		 * Initialize an empty 4-ary IntPriorityQueue object, without a position index.
+		 */
+		this(4, 16, 0);
+	}
+
+	public IntPriorityQueue(int arity) {
+		/*
+		 * Constructor
+		 * Initialize an empty IntPriorityQueue object with the given arity, without a position index.
+		 */
+		this(arity, 16, 0);
+	}
+
+	public IntPriorityQueue(int arity, int initialCapacity, int keyLimit) {
+		/*
+		 * Constructor
+		 * Initialize an empty IntPriorityQueue object.
+		 * Argument arity -- is the number of children per heap node, at least 2.
+		 * Argument initialCapacity -- is the starting size of the underlying Array, which doubles when full.
+		 * Argument keyLimit -- if above 0, keeps a position index for decreaseKey() and contains(), and every element
+		 * 			must then be distinct and between 0 and keyLimit - 1. 0 means no position index.
+		 */
+		if (arity < 2) {
+			throw new IllegalArgumentException("arity must be at least 2");
+		}
+		if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("initialCapacity out of range");
+		}
+		if (keyLimit < 0) {
+			throw new IllegalArgumentException("keyLimit must not be negative");
+		}
+		this.arity = arity;
+		this.heap = new int[initialCapacity];
+		this.size = 0;
+		if (keyLimit > 0) {
+			this.positions = new int[keyLimit];
+			Arrays.fill(positions, -1);
+		} else {
+			this.positions = null;
+		}
+	}
+
+	public IntPriorityQueue(IntPriorityQueue old) {
+		/*
+		 * Deep Copy constructor
+		 * takes an IntPriorityQueue as argument and initialize a new IntPriorityQueue with the same elements,
+		 * arity and position index as the argument. The heap is copied as it is, so it needs no reordering.
+		 */
+		this.arity = old.arity;
+		this.heap = Arrays.copyOf(old.heap, old.heap.length);
+		this.size = old.size;
+		this.hash = old.hash;
+		this.positions = old.positions == null ? null : Arrays.copyOf(old.positions, old.positions.length);
+	}
+
+	private void grow(int minCapacity) {
+		/*
+		 * Helper function
+		 * Doubles the size of the underlying Array until it can hold minCapacity elements.
+		 */
+		if (minCapacity > MAX_CAPACITY) {
+			throw new OutOfMemoryError("IntPriorityQueue can not hold " + minCapacity + " elements");
+		}
+		long newLength = heap.length;
+		while (newLength < minCapacity) {
+			newLength = newLength * 2;
+		}
+		heap = Arrays.copyOf(heap, (int) Math.min(newLength, MAX_CAPACITY));
+	}
+
+	private void checkKey(int value) {
+		/*
+		 * Helper function, only called when there is a position index.
+		 * Throws IllegalArgumentException if value is out of range or already in the Queue.
+		 */
+		if (value < 0 || value >= positions.length) {
+			throw new IllegalArgumentException("value " + value + " is outside the position index");
+		}
+		if (positions[value] >= 0) {
+			throw new IllegalArgumentException("value " + value + " is already in the Queue");
+		}
+	}
+
+	private void place(int index, int value) {
+		/*
+		 * Helper function
+		 * Stores value at index of the heap and records the new index in the position index, if there is one.
+		 */
+		heap[index] = value;
+		if (positions != null) {
+			positions[value] = index;
+		}
+	}
+
+	private void siftUp(int index, int value) {
+		/*
+		 * Helper function
+		 * Moves value up from index, shifting larger parents down into the hole, until its parent is not larger.
+		 */
+		while (index > 0) {
+			int parent = (index - 1) / arity;
+			int parentValue = heap[parent];
+			if (parentValue <= value) {
+				break;
+			}
+			place(index, parentValue);
+			index = parent;
+		}
+		place(index, value);
+	}
+
+	private void siftDown(int index, int value) {
+		/*
+		 * Helper function
+		 * Moves value down from index, shifting the smallest child up into the hole, until no child is smaller.
+		 */
+		while (true) {
+			int first = arity * index + 1;
+			if (first >= size || first < 0) {
+				break;
+			}
+			int last = Math.min(first + arity, size);
+			int min = first;
+			int minValue = heap[first];
+			for (int c = first + 1; c < last; c++) {
+				if (heap[c] < minValue) {
+					min = c;
+					minValue = heap[c];
+				}
+			}
+			if (minValue >= value) {
+				break;
+			}
+			place(index, minValue);
+			index = min;
+		}
+		place(index, value);
+	}
+
+	private void buildHeap() {
+		/*
+		 * Helper function
+		 * Turns heap[0] to heap[size - 1] into a valid heap bottom-up (Floyd's method):
+		 * every parent, from the last one to the root, is sifted down. This is O(n) instead of O(n log n).
+		 * With fewer than 2 elements there is no parent; (size - 2) / arity would truncate to 0 and sift a stale slot.
+		 */
+		if (size < 2) {
+			return;
+		}
+		for (int i = (size - 2) / arity; i >= 0; i--) {
+			siftDown(i, heap[i]);
+		}
+	}
+
+	@Override
+	public void enqueue(int value) {
+		/*
+		 * This method adds a new element to the Queue, in O(log n).
+		 * Argument int value -- is the value of the new element to be added.
+		 * With a position index, throws IllegalArgumentException if value is out of range or already in the Queue.
+		 */
+		if (positions != null) {
+			checkKey(value);
+		}
+		if (size == heap.length) {
+			grow(size + 1);
+		}
+		size += 1;
+		siftUp(size - 1, value);
+		hash += SequenceHash.mix(value);
+	}
+
+	public void heapify(int[] src, int off, int len) {
+		/*
+		 * heapify() replaces the contents of the Queue with len elements of src, starting at index off, in O(len).
+		 * The elements are copied in with one System.arraycopy and the heap is built bottom-up.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		clear();
+		enqueueAll(src, off, len);
+	}
+
+	@Override
+	public void enqueueAll(int[] src, int off, int len) {
+		/*
+		 * This method adds len elements of src, starting at index off, to the Queue.
+		 * If len is at least the current size, the elements are appended and the whole heap is rebuilt bottom-up,
+		 * which is O(size + len); otherwise each element is sifted up on its own.
+		 * With a position index, all the elements are checked first, so on IllegalArgumentException nothing is added.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		if (len == 0) {
+			return;
+		}
+		if (positions != null) {
+			checkKeys(src, off, len);
+		}
+		if (size + len > heap.length) {
+			grow(size + len);
+		}
+		for (int i = off; i < off + len; i++) {
+			hash += SequenceHash.mix(src[i]);
+		}
+		if (len < size) {
+			for (int i = off; i < off + len; i++) {
+				size += 1;
+				siftUp(size - 1, src[i]);
+			}
+			return;
+		}
+		System.arraycopy(src, off, heap, size, len);
+		size += len;
+		if (positions != null) {
+			for (int i = 0; i < size; i++) {
+				positions[heap[i]] = i;
+			}
+		}
+		buildHeap();
+	}
+
+	private void checkKeys(int[] src, int off, int len) {
+		/*
+		 * Helper function, only called when there is a position index.
+		 * Runs checkKey() on len elements of src, starting at index off, and also rejects a value that appears twice.
+		 * Every checked key is marked as taken in the position index; enqueueAll() then overwrites the marks.
+		 */
+		for (int i = off; i < off + len; i++) {
+			try {
+				checkKey(src[i]);
+			} catch (IllegalArgumentException e) {
+				// nothing has been added yet, only the keys marked so far need to be released
+				for (int j = off; j < i; j++) {
+					positions[src[j]] = -1;
+				}
+				throw e;
+			}
+			positions[src[i]] = Integer.MAX_VALUE;
+		}
+	}
+
+	@Override
+	public int dequeue() {
+		/*
+		 * This method removes the smallest element of the Queue, in O(log n).
+		 * Returns the value of the removed element
+		 * If empty Queue, returns -1 and do nothing
+		 */
+		if (isEmpty()) {
+			return -1;
+		}
+		int ret = heap[0];
+		size -= 1;
+		hash -= SequenceHash.mix(ret);
+		if (size > 0) {
+			siftDown(0, heap[size]);
+		}
+		if (positions != null) {
+			positions[ret] = -1;
+		}
+		return ret;
+	}
+
+	@Override
+	public int drainTo(int[] dst, int max) {
+		/*
+		 * This method removes up to max elements, smallest first, and stores them in order at the start of dst.
+		 * Returns the number of elements removed.
+		 */
+		int n = Math.max(0, Math.min(Math.min(max, dst.length), size));
+		for (int i = 0; i < n; i++) {
+			dst[i] = dequeue();
+		}
+		return n;
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * This method returns the value of the smallest element in the Queue.
+		 * If empty Queue, returns -1.
+		 * This method does not alter the Queue in any way.
+		 */
+		if (isEmpty()) {
+			return -1;
+		}
+		return heap[0];
+	}
+
+	public boolean contains(int value) {
+		/*
+		 * contains() returns true if value is in the Queue.
+		 * O(1) with a position index, otherwise a linear search of the heap.
+		 */
+		if (positions != null) {
+			return value >= 0 && value < positions.length && positions[value] >= 0;
+		}
+		for (int i = 0; i < size; i++) {
+			if (heap[i] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public void decreaseKey(int value, int newValue) {
+		/*
+		 * decreaseKey() replaces the element value with the smaller newValue and moves it up the heap, in O(log n).
+		 * Needs a position index: throws UnsupportedOperationException if the Queue was created without one.
+		 * Throws IllegalArgumentException if value is not in the Queue, newValue is larger than value,
+		 * or newValue is out of range or already in the Queue.
+		 */
+		if (positions == null) {
+			throw new UnsupportedOperationException("decreaseKey needs a position index (keyLimit)");
+		}
+		if (!contains(value)) {
+			throw new IllegalArgumentException("value " + value + " is not in the Queue");
+		}
+		if (newValue > value) {
+			throw new IllegalArgumentException("newValue must not be larger than value");
+		}
+		if (newValue == value) {
+			return;
+		}
+		checkKey(newValue);
+		int index = positions[value];
+		positions[value] = -1;
+		siftUp(index, newValue);
+		hash += SequenceHash.mix(newValue) - SequenceHash.mix(value);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the Queue is empty
+		 * returns false otherwise
+		 */
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in the Queue
+		 * if empty Queue, returns 0.
+		 */
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears all element from the Queue.
+		 * The underlying Array is kept; with a position index, the entries of the removed elements are reset.
+		 */
+		if (positions != null) {
+			for (int i = 0; i < size; i++) {
+				positions[heap[i]] = -1;
+			}
+		}
+		size = 0;
+		hash = 0;
+	}
+
+	private int[] sorted() {
+		/*
+		 * Helper function
+		 * Returns the elements in the order dequeue() would return them, without altering the Queue.
+		 */
+		int[] ret = Arrays.copyOf(heap, size);
+		Arrays.sort(ret);
+		return ret;
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the Queue, smallest element first.
+		 * The format is similar to how an Array is represented in String.
+		 */
+		return ElementFormat.toString(Arrays.stream(sorted()).iterator());
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements smallest first, the order dequeue() would return them.
+		 */
+		return sorted();
+	}
+
+	@Override
+	public boolean equals(Object queue2) {
+		/*
+		 * This method overrides Java equals(Object) method to accurately compares 2 IntPriorityQueue.
+		 * If the argument is not an instance of IntPriorityQueue, returns false.
+		 *
+		 * If both Queue hold the same elements, so they would dequeue the same values in the same order, returns true.
+		 * Returns false otherwise. The heaps themselves may be laid out differently, so sorted copies are compared,
+		 * but only after the sizes and hashes match.
+		 */
+		if (!(queue2 instanceof IntPriorityQueue)) {
+			return false;
+		}
+		IntPriorityQueue other = (IntPriorityQueue) queue2;
+		if (size != other.size || hash != other.hash) {
+			return false;
+		}
+		return Arrays.equals(sorted(), other.sorted());
+	}
+
+	@Override
+	public int hashCode() {
+		/*
+		 * hashCode() returns the sum of SequenceHash.mix() over the elements. It is O(1).
+		 */
+		return hash;
+	}
+
+}
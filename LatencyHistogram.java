@@ -0,0 +1,122 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Author: Khanh Nguyen
+ * File: LatencyHistogram.java
+ * Purpose: This file implements LatencyHistogram, a lock-free histogram of operation latencies in nanoseconds.
+ * 			Bucket b counts the latencies from 2^(b-1) to 2^b - 1 ns (bucket 0 counts 0 ns), so 64 buckets cover every
+ * 			long and recording a value is a numberOfLeadingZeros and one add.
+ * 			Every bucket is a LongAdder, which stripes its count over per-thread cells under contention,
+ * 			so threads recording at the same time do not fight over one counter.
+ * 			Percentiles are only as exact as the buckets: a percentile is reported as the upper bound of its bucket,
+ * 			which is at most twice the real value.
+ * Methods: record(); count(); percentile(); max(); buckets() and reset().
+ * 			Reads while other threads record give a snapshot that may be slightly off, never a wrong bucket.
+ */
+public class LatencyHistogram {
+
+	private static final int BUCKETS = 64;
+
+	private final LongAdder[] counts;
+	private final LongAccumulator max;
+
+	public LatencyHistogram() {
+		/*
+		 * Constructor
+		 * Initialize an empty LatencyHistogram object.
+		 */
+		this.counts = new LongAdder[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = new LongAdder();
+		}
+		this.max = new LongAccumulator(Math::max, 0);
+	}
+
+	public void record(long nanos) {
+		/*
+		 * record() counts one latency. Negative latencies (a clock going backwards) count as 0.
+		 */
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		counts[BUCKETS - Long.numberOfLeadingZeros(nanos)].increment();
+		max.accumulate(nanos);
+	}
+
+	public long count() {
+		/*
+		 * count() returns the number of latencies recorded.
+		 */
+		long ret = 0;
+		for (LongAdder count : counts) {
+			ret += count.sum();
+		}
+		return ret;
+	}
+
+	public long percentile(double p) {
+		/*
+		 * percentile() returns the upper bound, in ns, of the bucket that holds the p-th percentile latency.
+		 * Argument p -- is between 0 and 100, for example 99.9.
+		 * Returns 0 if nothing has been recorded.
+		 */
+		if (!(p >= 0 && p <= 100)) {
+			throw new IllegalArgumentException("p must be between 0 and 100");
+		}
+		long[] snapshot = buckets();
+		long total = 0;
+		for (long count : snapshot) {
+			total += count;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(total * p / 100));
+		long seen = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			seen += snapshot[b];
+			if (seen >= rank) {
+				return Math.min(upperBound(b), max());
+			}
+		}
+		return max();
+	}
+
+	private static long upperBound(int bucket) {
+		/*
+		 * Helper function
+		 * Returns the largest latency that falls in the given bucket.
+		 */
+		return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+	}
+
+	public long max() {
+		/*
+		 * max() returns the largest latency recorded, in ns.
+		 */
+		return max.get();
+	}
+
+	public long[] buckets() {
+		/*
+		 * buckets() returns a copy of the bucket counts; entry b counts the latencies from 2^(b-1) to 2^b - 1 ns.
+		 */
+		long[] ret = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			ret[i] = counts[i].sum();
+		}
+		return ret;
+	}
+
+	public void reset() {
+		/*
+		 * reset() sets every bucket and the maximum back to 0.
+		 */
+		for (LongAdder count : counts) {
+			count.reset();
+		}
+		max.reset();
+	}
+
+}
@@ -1,3 +1,12 @@
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /*
  * Author: Khanh Nguyen
  * File: ListQueue.java
@@ -5,6 +14,14 @@
  * 			ListQueue is a Queue that uses abstract class LinkedList as the underlying data structure to keep track of the items.
  * Methods: The basic methods for a Queue is implemented, including dequeue(); enqueue(); peek();isEmpty(); size(); clear() and toString();
  * This class also overrides Java equals(Object) method to accurately compare ListQueues.
+ * Iteration: forEach(), iterator(), spliterator() and stream() read the elements without removing them, from the front
+ * 			of the Queue to the back, following the Nodes with no boxing and no copy.
+ * 			The Queue must not be changed while it is being iterated.
+ * Hashing: hashCode() is a SequenceHash of the elements, kept up to date by the LinkedList on every enqueue and dequeue,
+ * 			so it is O(1). equals() rejects Queues of a different size or hash right away, and is true for a ListQueue,
+ * 			an ArrayQueue or an UnrolledListQueue holding the same elements in the same order.
+ * Text: toString() and appendTo() follow the Nodes from front to back and write the values one at a time,
+ * 			and appendTo() can stop after a given number of elements.
  */
 public class ListQueue implements QueueInterface {
 
@@ -12,6 +29,11 @@ public class ListQueue implements QueueInterface {
 
 	private class LinkedList {
 		private Node head;
+		private Node tail;
+		private int count;
+		// SequenceHash of the values from the head to the tail, and SequenceHash.BASE to the power of count
+		private int hash;
+		private int power = 1;
 
 		class Node {
 			/*
@@ -44,24 +66,96 @@ public class ListQueue implements QueueInterface {
 		}
 		LinkedList(){
 			this.head=null;
+			this.tail=null;
+			this.count=0;
 		}
 		
 		void append(int val) {
 			/*
 			 * Append adds a new Node to the end of the List
 			 * Argument val -- is the value of the new Node
+			 * The new Node is linked directly after tail, so no walk through the List is needed.
+			 */
+			Node newNode = new Node(val);
+			if (isEmpty()) {
+				this.head = newNode;
+			} else {
+				this.tail.setNext(newNode);
+			}
+			this.tail = newNode;
+			count+=1;
+			hash += SequenceHash.term(val) * power;
+			power *= SequenceHash.BASE;
+		}
+
+		int removeFirst() {
+			/*
+			 * removeFirst() removes the first Node of the List
+			 * returns the value of the removed Node
+			 * if empty List, returns -1 and do nothing.
 			 */
 			if (isEmpty()) {
-				this.head = new Node(val);
+				return -1;
+			}
+			int ret = this.head.value();
+			this.head = this.head.next();
+			if (this.head == null) {
+				this.tail = null;
+			}
+			count-=1;
+			hash = (hash - SequenceHash.term(ret)) * SequenceHash.INVERSE;
+			power *= SequenceHash.INVERSE;
+			return ret;
+		}
+
+		void appendAll(int[] src, int off, int len) {
+			/*
+			 * appendAll() adds a Node for each of the len values of src, starting at index off, to the end of the List.
+			 * The new Nodes are linked to each other first, then the whole chain is linked after tail at once.
+			 */
+			if (len == 0) {
 				return;
 			}
-			Node newNode = new Node(val);
+			Node first = new Node(src[off]);
+			Node last = first;
+			for (int i = off + 1; i < off + len; i++) {
+				Node newNode = new Node(src[i]);
+				last.setNext(newNode);
+				last = newNode;
+			}
+			if (isEmpty()) {
+				this.head = first;
+			} else {
+				this.tail.setNext(first);
+			}
+			this.tail = last;
+			count+=len;
+			for (int i = off; i < off + len; i++) {
+				hash += SequenceHash.term(src[i]) * power;
+				power *= SequenceHash.BASE;
+			}
+		}
+
+		int removeFirst(int[] dst, int max) {
+			/*
+			 * removeFirst(dst, max) removes up to max Nodes from the front of the List
+			 * and stores their values in order at the start of dst.
+			 * returns the number of Nodes removed.
+			 */
+			int n = Math.max(0, Math.min(Math.min(max, dst.length), count));
 			Node pointer = this.head;
-			while (pointer.next() != null) {
+			for (int i = 0; i < n; i++) {
+				dst[i] = pointer.value();
 				pointer = pointer.next();
+				hash = (hash - SequenceHash.term(dst[i])) * SequenceHash.INVERSE;
+				power *= SequenceHash.INVERSE;
 			}
-			pointer.setNext(newNode);
-
+			this.head = pointer;
+			if (this.head == null) {
+				this.tail = null;
+			}
+			count-=n;
+			return n;
 		}
 		Boolean isEmpty() {
 			/*
@@ -77,26 +171,19 @@ public class ListQueue implements QueueInterface {
 			 */
 			return this.head;
 		}
-		void setHead(Node node) {
+
+		int hash() {
 			/*
-			 * Setter to set the head of the List
+			 * getter for the SequenceHash of the List
 			 */
-			this.head = node;
+			return hash;
 		}
 		int size() {
 			/*
 			 * returns the number of Nodes in the Linked List
 			 * if empty List, returns 0
+			 * The count is kept up to date by append() and removeFirst().
 			 */
-			if (isEmpty()) {
-				return 0;
-			}
-			int count=1;
-			Node pointer = getHead();
-			while (pointer.next()!= null) {
-				count+=1;
-				pointer=pointer.next();
-			}
 			return count;
 		}
 		public String toString() {
@@ -104,22 +191,15 @@ public class ListQueue implements QueueInterface {
 			 * toString() returns the String representation of LinkedList
 			 * The format is similar to how Java represents an Array.
 			 */
-			if (isEmpty()) {
-				return "{}";
-			}
-			Node pointer=this.getHead();
-			String ret="{";
-			while (pointer!=null) {
-				ret+= String.valueOf(pointer.value())+",";
-				pointer=pointer.next();
-			}
-			return ret.substring(0,ret.length()-1)+"}";
+			return ElementFormat.toString(iterator());
 		}
 		LinkedList copy() {
 			/*
 			 * This method returns a deep copy of the LinkedList.
 			 * The deep copy is created by initiating a new LinkedList
 			 * then iterate through the current List, and append the values of every nodes to the new List
+			 * Since append() is constant time, the copy takes a single pass over the List.
+			 * append() also rebuilds the hash, so the copy ends up with the same hash.
 			 */
 			LinkedList newCopy = new LinkedList();
 			Node pointer = this.getHead();
@@ -136,11 +216,12 @@ public class ListQueue implements QueueInterface {
 			 * returns true if both List has all the same Nodes in the same position.
 			 * returns false otherwise
 			 * Argument list2 -- is the Linked list to compare with
+			 * Lists of different sizes or hashes are rejected without walking them.
 			 */
 			if (list2.isEmpty() && isEmpty()) {
 				return true;
 			}
-			if (list2.size()!=size()) {
+			if (list2.size()!=size() || list2.hash()!=hash()) {
 				return false;
 			}
 			Node pointer1 = getHead();
@@ -180,6 +261,15 @@ public class ListQueue implements QueueInterface {
 		itemList.append(value);
 	}
 
+	@Override
+	public void enqueueAll(int[] src, int off, int len) {
+		/*
+		 * This method adds len elements of src, starting at index off, to the end of the Queue in order.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		itemList.appendAll(src, off, len);
+	}
+
 	@Override
 	public int dequeue() {
 		/*
@@ -187,12 +277,16 @@ public class ListQueue implements QueueInterface {
 		 * Returns the value of the removed element
 		 * If empty Queue, returns -1 and do nothing
 		 */
-		if (isEmpty()) {
-			return -1;
-		}
-		int ret = itemList.getHead().value();
-		itemList.setHead(itemList.getHead().next());
-		return ret;
+		return itemList.removeFirst();
+	}
+
+	@Override
+	public int drainTo(int[] dst, int max) {
+		/*
+		 * This method removes up to max elements from the start of the Queue and stores them in order at the start of dst.
+		 * Returns the number of elements removed.
+		 */
+		return itemList.removeFirst(dst, max);
 	}
 
 	@Override
@@ -247,6 +341,142 @@ public class ListQueue implements QueueInterface {
 		return itemList.toString();
 		
 	}
+
+	@Override
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() writes at most limit elements to out, from front to back, in the toString() format.
+		 * The Nodes are followed in place, so nothing is copied first.
+		 */
+		ElementFormat.appendTo(out, iterator(), limit);
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from front to back, the order dequeue() would return them.
+		 */
+		int[] ret = new int[size()];
+		int i = 0;
+		for (LinkedList.Node pointer = itemList.getHead(); pointer != null; pointer = pointer.next()) {
+			ret[i] = pointer.value();
+			i += 1;
+		}
+		return ret;
+	}
+	public void forEach(IntConsumer action) {
+		/*
+		 * forEach() calls action on every element, from the front of the Queue to the back.
+		 * This method does not alter the Queue in any way.
+		 */
+		Objects.requireNonNull(action);
+		for (LinkedList.Node pointer = itemList.getHead(); pointer != null; pointer = pointer.next()) {
+			action.accept(pointer.value());
+		}
+	}
+
+	public PrimitiveIterator.OfInt iterator() {
+		/*
+		 * iterator() returns an iterator over the elements, from the front of the Queue to the back.
+		 */
+		return new PrimitiveIterator.OfInt() {
+			private LinkedList.Node pointer = itemList.getHead();
+
+			@Override
+			public boolean hasNext() {
+				return pointer != null;
+			}
+
+			@Override
+			public int nextInt() {
+				if (pointer == null) {
+					throw new NoSuchElementException();
+				}
+				int ret = pointer.value();
+				pointer = pointer.next();
+				return ret;
+			}
+		};
+	}
+
+	public Spliterator.OfInt spliterator() {
+		/*
+		 * spliterator() returns a Spliterator over the elements, from the front of the Queue to the back.
+		 */
+		return new Elements(itemList.getHead(), itemList.size());
+	}
+
+	public IntStream stream() {
+		/*
+		 * stream() returns an IntStream of the elements, from the front of the Queue to the back.
+		 * Call parallel() on it to run it on several threads.
+		 */
+		return StreamSupport.intStream(spliterator(), false);
+	}
+
+	private final class Elements implements Spliterator.OfInt {
+		/*
+		 * Spliterator over the next remaining Nodes of the List, starting at pointer.
+		 * trySplit() walks to the middle of the remaining Nodes and hands out the first half, so nothing is copied.
+		 */
+		private LinkedList.Node pointer;
+		private int remaining;
+
+		Elements(LinkedList.Node pointer, int remaining) {
+			this.pointer = pointer;
+			this.remaining = remaining;
+		}
+
+		@Override
+		public boolean tryAdvance(IntConsumer action) {
+			Objects.requireNonNull(action);
+			if (remaining == 0) {
+				return false;
+			}
+			action.accept(pointer.value());
+			pointer = pointer.next();
+			remaining -= 1;
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(IntConsumer action) {
+			Objects.requireNonNull(action);
+			LinkedList.Node node = pointer;
+			int n = remaining;
+			pointer = null;
+			remaining = 0;
+			for (int i = 0; i < n; i++) {
+				action.accept(node.value());
+				node = node.next();
+			}
+		}
+
+		@Override
+		public Spliterator.OfInt trySplit() {
+			if (remaining < 2) {
+				return null;
+			}
+			int half = remaining / 2;
+			Elements prefix = new Elements(pointer, half);
+			for (int i = 0; i < half; i++) {
+				pointer = pointer.next();
+			}
+			remaining -= half;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return remaining;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL;
+		}
+	}
+
 	private LinkedList items() {
 		/*
 		 * Getter method for the underlying LinkedList. 
@@ -257,17 +487,33 @@ public class ListQueue implements QueueInterface {
 	@Override
 	public boolean equals(Object  queue2) {
 		/*
-		 * This method overrides Java equals(Object) method to accurately compares 2 ArrayQueue.
-		 * If the argument is not an instance of ArrayQueue, returns false.
+		 * This method overrides Java equals(Object) method to accurately compares 2 Queues.
+		 * If the argument is not an instance of ListQueue, ArrayQueue or UnrolledListQueue, returns false.
 		 *
 		 * If both Queue has all the same elements in the same order, returns true.
 		 * Returns false otherwise
-		 * The logic is implemented with LinkedList.isEqual()
+		 * The logic is implemented with LinkedList.isEqual(); the other classes are compared through both iterators.
 		 */
 		if (queue2 instanceof ListQueue) {
 		return ((ListQueue) queue2).items().isEqual(itemList);
 		}
+		if (queue2 instanceof ArrayQueue) {
+			ArrayQueue other = (ArrayQueue) queue2;
+			return SequenceHash.sameElements(size(), hashCode(), iterator(), other.size(), other.hashCode(), other.iterator());
+		}
+		if (queue2 instanceof UnrolledListQueue) {
+			UnrolledListQueue other = (UnrolledListQueue) queue2;
+			return SequenceHash.sameElements(size(), hashCode(), iterator(), other.size(), other.hashCode(), other.iterator());
+		}
 		return false;
 	}
 
+	@Override
+	public int hashCode() {
+		/*
+		 * hashCode() returns the SequenceHash of the elements, from front to back. It is O(1).
+		 */
+		return itemList.hash();
+	}
+
 }
@@ -1,3 +1,11 @@
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /*
  * Author: Khanh Nguyen
  * File: ArrayStack.java
@@ -5,6 +13,16 @@
  * 			ListStack is a Stack that uses abstract class LinkedList as the underlying data structure to keep track of the items.
  * Methods: The basic methods for a Stack is implemented, including pop(); push(); peek();isEmpty(); size(); clear() and toString();
  * This class also overrides Java equals(Object) method to accurately compare ListStacks.
+ * The top of the Stack is the head of the LinkedList, so push(), pop() and peek() never walk the List.
+ * Optionally, popped Nodes can be kept in a bounded free-list and reused by later pushes.
+ * Iteration: forEach(), iterator(), spliterator() and stream() read the elements without removing them, from the top
+ * 			of the Stack to the bottom, following the Nodes with no boxing and no copy.
+ * 			The Stack must not be changed while it is being iterated.
+ * Hashing: hashCode() is a SequenceHash of the elements, kept up to date by the LinkedList on every push and pop,
+ * 			so it is O(1). equals() rejects Stacks of a different size or hash right away, and is true for a ListStack,
+ * 			an ArrayStack or a VersionedStack holding the same elements in the same order.
+ * Text: toString() and appendTo() list the Stack from bottom to top, which is the reverse of the Node order, so they
+ * 			first copy the values out with toArray() and then write them one at a time, in linear time.
  */
 public class ListStack implements StackInterface {
 
@@ -12,6 +30,13 @@ public class ListStack implements StackInterface {
 
 	private class LinkedList {
 		private Node head;
+		private int count;
+		// SequenceHash of the values from the last Node to the head, and SequenceHash.BASE to the power of count
+		private int hash;
+		private int power = 1;
+		private Node free;
+		private int freeCount;
+		private int freeLimit;
 
 		class Node {
 			/*
@@ -34,6 +59,10 @@ public class ListStack implements StackInterface {
 				this.next = node;
 			}
 
+			void setValue(int val) {
+				this.value = val;
+			}
+
 			Node next() {
 				return next;
 			}
@@ -43,26 +72,44 @@ public class ListStack implements StackInterface {
 			}
 		}
 
-		LinkedList() {
+		LinkedList(int freeLimit) {
+			/*
+			 * Initiates an empty List
+			 * Arguments: freeLimit -- is the maximum number of removed Nodes kept for reuse, 0 disables recycling.
+			 */
 			this.head = null;
+			this.count = 0;
+			this.free = null;
+			this.freeCount = 0;
+			this.freeLimit = freeLimit;
 		}
 
-		void append(int val) {
+		private Node newNode(int val) {
 			/*
-			 * Append adds a new Node to the end of the List
-			 * Argument val -- is the value of the new Node
+			 * Returns a Node holding val, reusing a Node from the free-list when one is available.
 			 */
-			if (isEmpty()) {
-				this.head = new Node(val);
-				return;
+			if (free == null) {
+				return new Node(val);
 			}
-			Node newNode = new Node(val);
-			Node pointer = this.head;
-			while (pointer.next() != null) {
-				pointer = pointer.next();
-			}
-			pointer.setNext(newNode);
+			Node node = free;
+			free = node.next();
+			freeCount -= 1;
+			node.setValue(val);
+			node.setNext(null);
+			return node;
+		}
 
+		void prepend(int val) {
+			/*
+			 * Prepend adds a new Node to the front of the List
+			 * Argument val -- is the value of the new Node
+			 */
+			Node node = newNode(val);
+			node.setNext(this.head);
+			this.head = node;
+			count += 1;
+			hash += SequenceHash.term(val) * power;
+			power *= SequenceHash.BASE;
 		}
 
 		Boolean isEmpty() {
@@ -80,101 +127,129 @@ public class ListStack implements StackInterface {
 			return this.head;
 		}
 
-		void setHead(Node node) {
-			/*
-			 * Setter to set the head of the List
-			 */
-			this.head = node;
-		}
-
 		int size() {
 			/*
 			 * returns the number of Nodes in the Linked List
 			 * if empty List, returns 0
+			 * The count is kept up to date by prepend() and removeFirst().
 			 */
-			if (isEmpty()) {
-				return 0;
-			}
-			int count = 1;
-			Node pointer = getHead();
-			while (pointer.next() != null) {
-				count += 1;
-				pointer = pointer.next();
-			}
 			return count;
 		}
 
+		void clear() {
+			/*
+			 * Removes every Node from the List.
+			 * The free-list is kept, so recycled Nodes survive a clear.
+			 */
+			this.head = null;
+			this.count = 0;
+			this.hash = 0;
+			this.power = 1;
+		}
+
+		int hash() {
+			/*
+			 * getter for the SequenceHash of the List
+			 */
+			return hash;
+		}
+
 		public String toString() {
 			/*
 			 * toString() returns the String representation of LinkedList
 			 * The format is similar to how Java represents an Array.
+			 * The head of the List is the top of the Stack, so the values are printed from the last Node to the head,
+			 * which lists the Stack from bottom to top.
 			 */
-			if (isEmpty()) {
-				return "{}";
-			}
+			return ElementFormat.toString(ElementFormat.reversed(toArray()));
+		}
+
+		int[] toArray() {
+			/*
+			 * Returns a new Array with the values from the head to the last Node.
+			 */
+			int[] ret = new int[count];
 			Node pointer = this.getHead();
-			String ret = "{";
-			while (pointer != null) {
-				ret += String.valueOf(pointer.value()) + ",";
+			for (int i = 0; i < count; i++) {
+				ret[i] = pointer.value();
 				pointer = pointer.next();
 			}
-			return ret.substring(0, ret.length() - 1) + "}";
+			return ret;
 		}
 
 		LinkedList copy() {
 			/*
 			 * This method returns a deep copy of the LinkedList.
 			 * The deep copy is created by initiating a new LinkedList
-			 * then iterate through the current List, and append the values of every nodes to the new List
+			 * then iterate through the current List, linking a new Node for every value after the last copied Node.
+			 * The copy has the same free-list limit but starts with an empty free-list.
 			 */
-			LinkedList newCopy = new LinkedList();
+			LinkedList newCopy = new LinkedList(freeLimit);
 			Node pointer = this.getHead();
+			Node last = null;
 			while (pointer != null) {
-				int val = pointer.value();
-				newCopy.append(val);
-				pointer=pointer.next();
+				Node node = new Node(pointer.value());
+				if (last == null) {
+					newCopy.head = node;
+				} else {
+					last.setNext(node);
+				}
+				last = node;
+				pointer = pointer.next();
 			}
+			newCopy.count = count;
+			newCopy.hash = hash;
+			newCopy.power = power;
 			return newCopy;
 		}
 
-		int removeLast() {
+		int removeFirst() {
 			/*
-			 * removeLast() removes the last element in the Linked List;
+			 * removeFirst() removes the first element in the Linked List;
 			 * returns the value of the element removed
 			 * if empty List, return -1 and do nothing.
+			 * The removed Node goes to the free-list unless the free-list is already full.
 			 */
 			if (isEmpty()) {
 				return -1;
 			}
-			Node pointer = getHead();
-			int ret;
-			if (size() == 1) {
-				ret = this.getHead().value();
-				this.setHead(null);
-				return ret;
-			}
-			while (pointer.next().next() != null) {
-				pointer = pointer.next();
+			Node node = this.head;
+			int ret = node.value();
+			this.head = node.next();
+			count -= 1;
+			power *= SequenceHash.INVERSE;
+			hash -= SequenceHash.term(ret) * power;
+			if (freeCount < freeLimit) {
+				node.setNext(free);
+				free = node;
+				freeCount += 1;
 			}
-			ret = pointer.next().value();
-			pointer.setNext(null);
 			return ret;
+		}
 
+		int removeFirst(int[] dst, int max) {
+			/*
+			 * removeFirst(dst, max) removes up to max elements from the front of the Linked List
+			 * and stores their values in order at the start of dst.
+			 * returns the number of elements removed.
+			 * The removed Nodes go to the free-list until the free-list is full.
+			 */
+			int n = Math.max(0, Math.min(Math.min(max, dst.length), count));
+			for (int i = 0; i < n; i++) {
+				dst[i] = removeFirst();
+			}
+			return n;
 		}
 
-		int peekLast() {
+		int peekFirst() {
 			/*
-			 * This method returns the value of the last element of the LinkedList
+			 * This method returns the value of the first element of the LinkedList
 			 * if empty list, returns -1
 			 */
 			if (isEmpty()) {
 				return -1;
 			}
-			Node pointer = getHead();
-			while (pointer.next() != null) {
-				pointer = pointer.next();
-			}
-			return pointer.value();
+			return this.head.value();
 		}
 		Boolean isEqual(LinkedList list2) {
 			/*
@@ -182,8 +257,9 @@ public class ListStack implements StackInterface {
 			 * returns true if both List has all the same Nodes in the same position.
 			 * returns false otherwise
 			 * Argument list2 -- is the Linked list to compare with
+			 * Lists of different sizes or hashes are rejected without walking them.
 			 */
-			if (list2.size()!=size()) {
+			if (list2.size()!=size() || list2.hash()!=hash()) {
 				return false;
 			}
 			Node pointer1 = getHead();
@@ -203,8 +279,21 @@ public class ListStack implements StackInterface {
 	public ListStack() {
 		/*
 		 * Initialize a new empty ListStack object
+		 * Popped Nodes are not recycled.
 		 */
-		this.itemList = new LinkedList();
+		this.itemList = new LinkedList(0);
+	}
+
+	public ListStack(int maxRecycledNodes) {
+		/*
+		 * Initialize a new empty ListStack object that recycles Nodes
+		 * Argument maxRecycledNodes -- is the maximum number of popped Nodes kept for reuse by push().
+		 * With a limit at least as large as the usual push/pop swing, steady push/pop churn allocates nothing.
+		 */
+		if (maxRecycledNodes < 0) {
+			throw new IllegalArgumentException("maxRecycledNodes must not be negative");
+		}
+		this.itemList = new LinkedList(maxRecycledNodes);
 	}
 
 	@Override
@@ -213,7 +302,18 @@ public class ListStack implements StackInterface {
 		 * push() adds a new element to the top of the stack
 		 * Argument int value -- is the value of the new element to be added
 		 */
-		itemList.append(value);
+		itemList.prepend(value);
+	}
+
+	@Override
+	public void pushAll(int[] src, int off, int len) {
+		/*
+		 * pushAll() pushes len elements of src, starting at index off, so src[off + len - 1] ends up on top.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		for (int i = off; i < off + len; i++) {
+			itemList.prepend(src[i]);
+		}
 	}
 
 	@Override
@@ -223,10 +323,19 @@ public class ListStack implements StackInterface {
 		 * returns the value of the element removed.
 		 * If empty Stack, returns -1 and do nothing
 		 */
-		int ret = itemList.removeLast();
+		int ret = itemList.removeFirst();
 		return ret;
 	}
 
+	@Override
+	public int popInto(int[] dst, int max) {
+		/*
+		 * popInto() pops up to max elements into dst, so dst[0] is the former top of the Stack.
+		 * Returns the number of elements removed.
+		 */
+		return itemList.removeFirst(dst, max);
+	}
+
 	@Override
 	public int peek() {
 		/*
@@ -234,7 +343,7 @@ public class ListStack implements StackInterface {
 		 * if empty Stack, returns -1.
 		 * takes no argument.
 		 */
-		return itemList.peekLast();
+		return itemList.peekFirst();
 	}
 
 	@Override
@@ -262,7 +371,7 @@ public class ListStack implements StackInterface {
 		 * clear() clears all element from the Stack.
 		 * Consequently, also set the field size to 0
 		 */
-		itemList = new LinkedList();
+		itemList.clear();
 	}
 
 	public String toString() {
@@ -273,6 +382,127 @@ public class ListStack implements StackInterface {
 		return itemList.toString();
 	}
 
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from top to bottom, the order pop() would return them.
+		 */
+		return itemList.toArray();
+	}
+
+	public void forEach(IntConsumer action) {
+		/*
+		 * forEach() calls action on every element, from the top of the Stack to the bottom.
+		 * This method does not alter the Stack in any way.
+		 */
+		Objects.requireNonNull(action);
+		for (LinkedList.Node pointer = itemList.getHead(); pointer != null; pointer = pointer.next()) {
+			action.accept(pointer.value());
+		}
+	}
+
+	public PrimitiveIterator.OfInt iterator() {
+		/*
+		 * iterator() returns an iterator over the elements, from the top of the Stack to the bottom.
+		 */
+		return new PrimitiveIterator.OfInt() {
+			private LinkedList.Node pointer = itemList.getHead();
+
+			@Override
+			public boolean hasNext() {
+				return pointer != null;
+			}
+
+			@Override
+			public int nextInt() {
+				if (pointer == null) {
+					throw new NoSuchElementException();
+				}
+				int ret = pointer.value();
+				pointer = pointer.next();
+				return ret;
+			}
+		};
+	}
+
+	public Spliterator.OfInt spliterator() {
+		/*
+		 * spliterator() returns a Spliterator over the elements, from the top of the Stack to the bottom.
+		 */
+		return new Elements(itemList.getHead(), itemList.size());
+	}
+
+	public IntStream stream() {
+		/*
+		 * stream() returns an IntStream of the elements, from the top of the Stack to the bottom.
+		 * Call parallel() on it to run it on several threads.
+		 */
+		return StreamSupport.intStream(spliterator(), false);
+	}
+
+	private final class Elements implements Spliterator.OfInt {
+		/*
+		 * Spliterator over the next remaining Nodes of the List, starting at pointer.
+		 * trySplit() walks to the middle of the remaining Nodes and hands out the first half, so nothing is copied.
+		 */
+		private LinkedList.Node pointer;
+		private int remaining;
+
+		Elements(LinkedList.Node pointer, int remaining) {
+			this.pointer = pointer;
+			this.remaining = remaining;
+		}
+
+		@Override
+		public boolean tryAdvance(IntConsumer action) {
+			Objects.requireNonNull(action);
+			if (remaining == 0) {
+				return false;
+			}
+			action.accept(pointer.value());
+			pointer = pointer.next();
+			remaining -= 1;
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(IntConsumer action) {
+			Objects.requireNonNull(action);
+			LinkedList.Node node = pointer;
+			int n = remaining;
+			pointer = null;
+			remaining = 0;
+			for (int i = 0; i < n; i++) {
+				action.accept(node.value());
+				node = node.next();
+			}
+		}
+
+		@Override
+		public Spliterator.OfInt trySplit() {
+			if (remaining < 2) {
+				return null;
+			}
+			int half = remaining / 2;
+			Elements prefix = new Elements(pointer, half);
+			for (int i = 0; i < half; i++) {
+				pointer = pointer.next();
+			}
+			remaining -= half;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return remaining;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL;
+		}
+	}
+
 	public ListStack(ListStack old) {
 		/*
 		 * This constructor creates a deep copy of a ListStack object
@@ -293,17 +523,32 @@ private LinkedList items() {
 @Override
 public boolean equals(Object  stack2) {
 	/*
-	 * This method overrides Java equals(Object) method to accurately compares 2 ArrayStack.
-	 * If the argument is not an instance of ArrayStack, returns false.
+	 * This method overrides Java equals(Object) method to accurately compares 2 Stacks.
+	 * If the argument is not an instance of ListStack, ArrayStack or VersionedStack, returns false.
 	 *
 	 * If both Stack has all the same elements in the same order, returns true.
 	 * Returns false otherwise
-	 * The logic is implemented with LinkedList.isEqual()
+	 * The logic is implemented with LinkedList.isEqual(); an ArrayStack or a VersionedStack is compared through both iterators.
 	 */
 	if (stack2 instanceof ListStack) {
 	return ((ListStack) stack2).items().isEqual(itemList);
 	}
+	if (stack2 instanceof ArrayStack) {
+	ArrayStack other = (ArrayStack) stack2;
+	return SequenceHash.sameElements(size(), hashCode(), iterator(), other.size(), other.hashCode(), other.iterator());
+	}
+	if (stack2 instanceof VersionedStack) {
+	VersionedStack other = (VersionedStack) stack2;
+	return SequenceHash.sameElements(size(), hashCode(), iterator(), other.size(), other.hashCode(), other.iterator());
+	}
 	return false;
 }
+@Override
+public int hashCode() {
+	/*
+	 * hashCode() returns the SequenceHash of the elements, from bottom to top. It is O(1).
+	 */
+	return itemList.hash();
+}
 
 }
@@ -0,0 +1,390 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+
+/*
+ * Author: Khanh Nguyen
+ * File: MappedFileQueue.java
+ * Purpose: This file implement the MappedFileQueue Class that implements QueueInterface.
+ * 			MappedFileQueue is a Queue whose elements live in memory-mapped files in a directory, so they survive a restart
+ * 			of the process (and, once synced, a crash of the machine).
+ * 			The Queue is a log split into segment files of slotsPerSegment slots each. enqueue() writes the element
+ * 			straight into the mapped segment at the write position, and dequeue() reads it at the read position and moves
+ * 			the read cursor forward. Nothing is ever shifted or copied. When the write position reaches the end of a
+ * 			segment, the next segment file is created (rolling), and a segment the read cursor has fully passed is
+ * 			deleted at the next sync.
+ * 			Every slot is 8 bytes: the element in the low half and COMMIT_MARK in the high half, written with one putLong,
+ * 			so a slot is either fully written or still zero.
+ * Durability: sync() forces the written segments to disk and then saves the read and write cursors in cursor.dat.
+ * 			The directory is fsynced whenever cursor.dat or a segment file is created, so a saved cursor never
+ * 			refers to a file that a crash could lose.
+ * 			It runs automatically every syncEvery operations, and on close(). Elements dequeued after the last sync
+ * 			are dequeued again after a crash (at-least-once delivery).
+ * Recovery: the constructor restarts from the saved cursors instead of replaying the log. It only looks at the slots
+ * 			after the saved write cursor, to pick up elements that reached the disk after the last sync.
+ * Methods: The basic methods for a Queue is implemented, including dequeue(); enqueue(); peek();isEmpty(); size(); clear() and toString();
+ * 			plus sync() and close(). I/O errors are thrown as UncheckedIOException, since QueueInterface methods have no throws clause.
+ * This class is not thread-safe.
+ */
+public class MappedFileQueue implements QueueInterface, AutoCloseable {
+
+	private static final int SLOT_BYTES = 8;
+	private static final int COMMIT_MARK = 0x51554555;
+	private static final String CURSOR_FILE = "cursor.dat";
+	// cursor.dat holds: read cursor, write cursor, slots per segment
+	private static final int CURSOR_BYTES = 24;
+
+	private final Path dir;
+	private final int slotsPerSegment;
+	private final int syncEvery;
+	private final MappedByteBuffer cursor;
+
+	private MappedByteBuffer writeSegment;
+	private long writeSegmentIndex = -1;
+	private MappedByteBuffer readSegment;
+	private long readSegmentIndex = -1;
+	private final List<Long> consumedSegments = new ArrayList<>();
+
+	private long readPos;
+	private long writePos;
+	private int unsynced;
+
+	public MappedFileQueue(Path dir) throws IOException {
+		/*
+		 * Constructor
+		 * Opens (or creates) the Queue stored in dir, with segments of 1M elements, syncing every 1024 operations.
+		 */
+		this(dir, 1 << 20, 1024);
+	}
+
+	public MappedFileQueue(Path dir, int slotsPerSegment, int syncEvery) throws IOException {
+		/*
+		 * Constructor
+		 * Opens (or creates) the Queue stored in dir.
+		 * Argument slotsPerSegment -- is the number of elements per segment file. It must match the value the Queue was created with.
+		 * Argument syncEvery -- is the number of enqueue/dequeue operations between automatic syncs, 0 only syncs on sync() and close().
+		 */
+		if (slotsPerSegment < 1 || slotsPerSegment > Integer.MAX_VALUE / SLOT_BYTES) {
+			throw new IllegalArgumentException("slotsPerSegment out of range");
+		}
+		if (syncEvery < 0) {
+			throw new IllegalArgumentException("syncEvery must not be negative");
+		}
+		this.dir = dir;
+		this.slotsPerSegment = slotsPerSegment;
+		this.syncEvery = syncEvery;
+		Files.createDirectories(dir);
+		boolean created = !Files.exists(dir.resolve(CURSOR_FILE));
+		this.cursor = map(dir.resolve(CURSOR_FILE), CURSOR_BYTES);
+		if (created) {
+			forceDirectory();
+		}
+
+		long savedSlots = cursor.getLong(16);
+		if (savedSlots != 0 && savedSlots != slotsPerSegment) {
+			throw new IllegalArgumentException("Queue in " + dir + " was created with " + savedSlots + " slots per segment");
+		}
+		cursor.putLong(16, slotsPerSegment);
+		this.readPos = cursor.getLong(0);
+		this.writePos = cursor.getLong(8);
+		// slots written after the last sync may have reached the disk as well
+		while (isCommitted(writePos)) {
+			writePos += 1;
+		}
+		// segments the read cursor had passed before the restart
+		deleteSegmentsBefore(readPos / slotsPerSegment);
+	}
+
+	private static MappedByteBuffer map(Path file, long bytes) throws IOException {
+		/*
+		 * Helper function
+		 * Maps the first bytes of file, creating the file (filled with zeros) if it does not exist.
+		 * The mapping stays valid after the channel is closed.
+		 */
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+		}
+	}
+
+	private Path segmentFile(long index) {
+		/*
+		 * Returns the path of the segment file with the given index.
+		 */
+		return dir.resolve(String.format("segment-%016d.dat", index));
+	}
+
+	private MappedByteBuffer mapSegment(long index) {
+		/*
+		 * Helper function
+		 * Maps the segment file with the given index, creating it if needed.
+		 * A new segment file is made durable by fsyncing the directory, before any cursor pointing into it is saved.
+		 */
+		try {
+			boolean created = !Files.exists(segmentFile(index));
+			MappedByteBuffer ret = map(segmentFile(index), (long) slotsPerSegment * SLOT_BYTES);
+			if (created) {
+				forceDirectory();
+			}
+			return ret;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void forceDirectory() throws IOException {
+		/*
+		 * Helper function
+		 * fsyncs the directory, so the files created in it are still there after a crash.
+		 */
+		try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+			channel.force(true);
+		}
+	}
+
+	private boolean isCommitted(long pos) throws IOException {
+		/*
+		 * Helper function, only used during recovery.
+		 * Returns true if the slot at pos holds a fully written element.
+		 */
+		long index = pos / slotsPerSegment;
+		if (!Files.exists(segmentFile(index))) {
+			return false;
+		}
+		if (index != writeSegmentIndex) {
+			writeSegment = mapSegment(index);
+			writeSegmentIndex = index;
+		}
+		long slot = writeSegment.getLong((int) (pos % slotsPerSegment) * SLOT_BYTES);
+		return (int) (slot >>> 32) == COMMIT_MARK;
+	}
+
+	@Override
+	public void enqueue(int value) {
+		/*
+		 * This method adds a new element to the end of the Queue.
+		 * Argument int value -- is the value of the new element to be added.
+		 * The element is written directly into the mapped segment. When the current segment is full,
+		 * it is forced to disk and the next segment file is created.
+		 */
+		long index = writePos / slotsPerSegment;
+		if (index != writeSegmentIndex) {
+			if (writeSegment != null) {
+				writeSegment.force();
+			}
+			writeSegment = mapSegment(index);
+			writeSegmentIndex = index;
+		}
+		long slot = ((long) COMMIT_MARK << 32) | (value & 0xFFFFFFFFL);
+		writeSegment.putLong((int) (writePos % slotsPerSegment) * SLOT_BYTES, slot);
+		writePos += 1;
+		countOperation();
+	}
+
+	@Override
+	public int dequeue() {
+		/*
+		 * This method removes the element at the start of the Queue
+		 * Returns the value of the removed element
+		 * If empty Queue, returns -1 and do nothing
+		 * Moving past the last slot of a segment marks that segment for deletion at the next sync.
+		 */
+		if (isEmpty()) {
+			return -1;
+		}
+		int ret = get(readPos);
+		readPos += 1;
+		if (readPos % slotsPerSegment == 0) {
+			consumedSegments.add(readPos / slotsPerSegment - 1);
+		}
+		countOperation();
+		return ret;
+	}
+
+	private int get(long pos) {
+		/*
+		 * Helper function
+		 * Returns the element at pos, mapping its segment for reading if it is not the current read segment.
+		 */
+		long index = pos / slotsPerSegment;
+		MappedByteBuffer segment;
+		if (index == writeSegmentIndex) {
+			segment = writeSegment;
+		} else {
+			if (index != readSegmentIndex) {
+				readSegment = mapSegment(index);
+				readSegmentIndex = index;
+			}
+			segment = readSegment;
+		}
+		return (int) segment.getLong((int) (pos % slotsPerSegment) * SLOT_BYTES);
+	}
+
+	private void countOperation() {
+		/*
+		 * Helper function
+		 * Counts one enqueue/dequeue and syncs when syncEvery operations have happened since the last sync.
+		 */
+		unsynced += 1;
+		if (syncEvery > 0 && unsynced >= syncEvery) {
+			sync();
+		}
+	}
+
+	public void sync() {
+		/*
+		 * sync() makes everything done so far durable.
+		 * The written segment is forced first, so the saved write cursor never points past data that is not on disk.
+		 * Then the cursors are saved and forced, and the fully consumed segments are deleted.
+		 */
+		if (writeSegment != null) {
+			writeSegment.force();
+		}
+		cursor.putLong(0, readPos);
+		cursor.putLong(8, writePos);
+		cursor.force();
+		for (long index : consumedSegments) {
+			deleteSegment(index);
+		}
+		consumedSegments.clear();
+		unsynced = 0;
+	}
+
+	private void deleteSegment(long index) {
+		/*
+		 * Helper function
+		 * Deletes the segment file with the given index and drops its mapping if it is the current read or write segment.
+		 */
+		if (index == readSegmentIndex) {
+			readSegment = null;
+			readSegmentIndex = -1;
+		}
+		if (index == writeSegmentIndex) {
+			writeSegment = null;
+			writeSegmentIndex = -1;
+		}
+		try {
+			Files.deleteIfExists(segmentFile(index));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void deleteSegmentsBefore(long firstKept) throws IOException {
+		/*
+		 * Helper function
+		 * Deletes every segment file with an index lower than firstKept.
+		 */
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.dat")) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				long index = Long.parseLong(name.substring("segment-".length(), name.length() - ".dat".length()));
+				if (index < firstKept) {
+					Files.delete(file);
+				}
+			}
+		}
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * This method Returns the value of the front element in the Queue.
+		 * If empty Queue, returns -1.
+		 * This method does not alter the Queue in any way.
+		 */
+		if (isEmpty()) {
+			return -1;
+		}
+		return get(readPos);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the Queue is empty
+		 * returns false otherwise
+		 */
+		return readPos == writePos;
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in the Queue
+		 * if empty Queue, returns 0. Sizes above Integer.MAX_VALUE are returned as Integer.MAX_VALUE.
+		 */
+		return (int) Math.min(writePos - readPos, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears all element from the Queue.
+		 * The read cursor jumps to the write cursor and the change is synced right away,
+		 * which also deletes every segment before the current write segment.
+		 */
+		for (long index = readPos / slotsPerSegment; index < writePos / slotsPerSegment; index++) {
+			consumedSegments.add(index);
+		}
+		readPos = writePos;
+		sync();
+	}
+
+	@Override
+	public void close() {
+		/*
+		 * close() syncs the Queue. The Queue must not be used afterwards.
+		 */
+		sync();
+		writeSegment = null;
+		readSegment = null;
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the Queue
+		 * The format is similar to how an Array is represented in String.
+		 */
+		return ElementFormat.toString(elements());
+	}
+
+	@Override
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() writes at most limit elements to out, from front to back, in the toString() format.
+		 * Only the segments holding the written elements are mapped.
+		 */
+		ElementFormat.appendTo(out, elements(), limit);
+	}
+
+	private PrimitiveIterator.OfInt elements() {
+		/*
+		 * Helper function
+		 * Returns an iterator that reads the elements from front to back through get(), without removing them.
+		 */
+		return LongStream.range(readPos, writePos).mapToInt(this::get).iterator();
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from front to back, reading each segment through get().
+		 */
+		int[] ret = new int[size()];
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = get(readPos + i);
+		}
+		return ret;
+	}
+
+}
@@ -0,0 +1,217 @@
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/*
+ * Author: Khanh Nguyen
+ * File: PersistentStack.java
+ * Purpose: This file implement the PersistentStack Class, an immutable Stack of ints.
+ * 			push() and pop() never change a PersistentStack: they return a new version, and every old version stays
+ * 			valid and unchanged. A version is one Node of a singly linked list, the top of its Stack, and push() links a
+ * 			single new Node in front of the version it was called on, so all the versions share the Nodes below them.
+ * 			Keeping a version (a snapshot) is O(1) and costs nothing, and n pushes allocate n Nodes in total,
+ * 			however many versions are kept. This suits backtracking: keep the version at every branch point
+ * 			and go back to it, instead of copying the whole Stack.
+ * 			Every Node also stores the size, SequenceHash and SequenceHash.BASE power of its version, so size(),
+ * 			hashCode() and the first checks of equals() are O(1), and hashCode() matches ArrayStack and ListStack.
+ * Methods: empty(); push(); pop(); peek(); isEmpty(); size(); toArray(); iterator(); forEach(); appendTo() and toString().
+ * 			pop() on the empty Stack returns the empty Stack, like the -1 of the mutable Stacks it does nothing.
+ * 			VersionedStack wraps a PersistentStack behind StackInterface.
+ * This class also overrides Java equals(Object) method: two PersistentStacks are equal if they hold the same elements
+ * in the same order. Versions that share their Nodes are recognized without comparing them.
+ */
+public final class PersistentStack {
+
+	private static final PersistentStack EMPTY = new PersistentStack();
+
+	private final int value;
+	private final PersistentStack next;
+	private final int size;
+	// SequenceHash of the elements from the bottom to this one, and SequenceHash.BASE to the power of size
+	private final int hash;
+	private final int power;
+
+	private PersistentStack() {
+		/*
+		 * Constructor for the empty Stack, which is shared by every version.
+		 */
+		this.value = -1;
+		this.next = null;
+		this.size = 0;
+		this.hash = 0;
+		this.power = 1;
+	}
+
+	private PersistentStack(int value, PersistentStack next) {
+		/*
+		 * Constructor
+		 * Creates the version with value on top of next.
+		 */
+		this.value = value;
+		this.next = next;
+		this.size = next.size + 1;
+		this.hash = next.hash + SequenceHash.term(value) * next.power;
+		this.power = next.power * SequenceHash.BASE;
+	}
+
+	public static PersistentStack empty() {
+		/*
+		 * empty() returns the empty Stack.
+		 */
+		return EMPTY;
+	}
+
+	public PersistentStack push(int value) {
+		/*
+		 * push() returns a new version with value on top of this one, in O(1). This version is not changed.
+		 */
+		return new PersistentStack(value, this);
+	}
+
+	public PersistentStack pushAll(int[] src, int off, int len) {
+		/*
+		 * pushAll() returns a new version with len elements of src, starting at index off, pushed in order,
+		 * so src[off + len - 1] is on top. This version is not changed.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		PersistentStack ret = this;
+		for (int i = off; i < off + len; i++) {
+			ret = new PersistentStack(src[i], ret);
+		}
+		return ret;
+	}
+
+	public PersistentStack pop() {
+		/*
+		 * pop() returns the version below this one, in O(1) and with no allocation. This version is not changed.
+		 * Read the top element with peek() first. If empty Stack, returns the empty Stack.
+		 */
+		return size == 0 ? this : next;
+	}
+
+	public int peek() {
+		/*
+		 * peek() returns the value of the top element.
+		 * If empty Stack, returns -1.
+		 */
+		return value;
+	}
+
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the Stack is empty
+		 * returns false otherwise
+		 */
+		return size == 0;
+	}
+
+	public int size() {
+		/*
+		 * size() returns the number of elements in the Stack, in O(1).
+		 */
+		return size;
+	}
+
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from top to bottom, the order pop() would remove them.
+		 */
+		int[] ret = new int[size];
+		PersistentStack pointer = this;
+		for (int i = 0; i < size; i++) {
+			ret[i] = pointer.value;
+			pointer = pointer.next;
+		}
+		return ret;
+	}
+
+	public void forEach(IntConsumer action) {
+		/*
+		 * forEach() calls action on every element, from the top of the Stack to the bottom.
+		 */
+		Objects.requireNonNull(action);
+		for (PersistentStack pointer = this; pointer.size > 0; pointer = pointer.next) {
+			action.accept(pointer.value);
+		}
+	}
+
+	public PrimitiveIterator.OfInt iterator() {
+		/*
+		 * iterator() returns an iterator over the elements, from the top of the Stack to the bottom.
+		 * The Stack can not change, so the iterator is valid for as long as it is kept.
+		 */
+		return new PrimitiveIterator.OfInt() {
+			private PersistentStack pointer = PersistentStack.this;
+
+			@Override
+			public boolean hasNext() {
+				return pointer.size > 0;
+			}
+
+			@Override
+			public int nextInt() {
+				if (pointer.size == 0) {
+					throw new NoSuchElementException();
+				}
+				int ret = pointer.value;
+				pointer = pointer.next;
+				return ret;
+			}
+		};
+	}
+
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() writes at most limit elements to out in the toString() format, from bottom to top.
+		 */
+		ElementFormat.appendTo(out, ElementFormat.reversed(toArray()), limit);
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the Stack, from bottom to top like ListStack.
+		 * The format is similar to how an Array is represented in String.
+		 */
+		return ElementFormat.toString(ElementFormat.reversed(toArray()));
+	}
+
+	@Override
+	public boolean equals(Object stack2) {
+		/*
+		 * This method overrides Java equals(Object) method to accurately compares 2 PersistentStacks.
+		 * If the argument is not an instance of PersistentStack, returns false.
+		 *
+		 * Versions of different sizes or hashes are rejected without looking at any element.
+		 * Otherwise both lists are walked together, and the walk stops at the first Node they share,
+		 * since everything below a shared Node is the same.
+		 */
+		if (!(stack2 instanceof PersistentStack)) {
+			return false;
+		}
+		PersistentStack other = (PersistentStack) stack2;
+		if (size != other.size || hash != other.hash) {
+			return false;
+		}
+		PersistentStack a = this;
+		PersistentStack b = other;
+		while (a != b) {
+			if (a.value != b.value) {
+				return false;
+			}
+			a = a.next;
+			b = b.next;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		/*
+		 * hashCode() returns the SequenceHash of the elements, from bottom to top. It is O(1).
+		 */
+		return hash;
+	}
+
+}
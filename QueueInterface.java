@@ -1,3 +1,7 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
 interface QueueInterface {
 
     /*
@@ -35,4 +39,51 @@ interface QueueInterface {
      * Removes all elements from the queue.
      */
     void clear();
+
+    /*
+     * Add len elements of src, starting at index off, to the back of the
+     * queue in order, so src[off] is dequeued first.
+     * 
+     * A bounded queue that runs out of space throws IllegalStateException.
+     */
+    default void enqueueAll(int[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        for (int i = off; i < off + len; i++) {
+            enqueue(src[i]);
+        }
+    }
+
+    /*
+     * Remove up to max elements from the front of the queue and store
+     * them in order at the start of dst.
+     * 
+     * Returns the number of elements removed, which is less than max if
+     * the queue runs empty or dst is shorter than max.
+     */
+    default int drainTo(int[] dst, int max) {
+        int n = Math.min(max, dst.length);
+        int count = 0;
+        while (count < n && !isEmpty()) {
+            dst[count] = dequeue();
+            count += 1;
+        }
+        return count;
+    }
+
+    /*
+     * Return the elements in the order dequeue() would return them,
+     * front first, without changing the queue.
+     */
+    int[] toArray();
+
+    /*
+     * Write the elements to out in the toString() format, from front
+     * to back, stopping after limit elements; if more are left the
+     * output ends with ",...}". The elements are appended one at a
+     * time, so a large queue is never built into a single String.
+     */
+    default void appendTo(Appendable out, int limit) throws IOException {
+        ElementFormat.appendTo(out, Arrays.stream(toArray()).iterator(), limit);
+    }
+
 }
@@ -0,0 +1,272 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ * Author: Khanh Nguyen
+ * File: SchedulerBenchmark.java
+ * Purpose: This file implements a small work-stealing task scheduler, to compare the per-worker Stacks it can run on.
+ * 			Every worker thread owns one Stack of task ids. A worker pops its newest task, runs it, and pushes the
+ * 			tasks it forks; when its own Stack is empty it steals a task from another worker picked at random.
+ * 			The workload is a fork-join tree: task d does a little work and forks two tasks d - 1, down to 0,
+ * 			so a run of depth D executes 2^(D+1) - 1 tasks and starts with a single task on worker 0.
+ * 			The baseline is the way workers keep their tasks today, an ArrayStack behind a lock that both the owner and
+ * 			the thieves take (thieves can only take the newest task). WorkStealingDeque lets the owner push and pop
+ * 			without a lock or, in the common case, a CAS, and lets thieves take the oldest task (the biggest subtree) with one CAS.
+ * 			A worker adds up the tasks it ran and publishes the count when it runs out of its own work, and the run ends
+ * 			when the counts reach the total, so there is no shared counter on the hot path. A lost task would keep the
+ * 			count below the total forever, so idle workers also give up after DEADLINE_NANOS, and the run then throws.
+ * Usage: java SchedulerBenchmark [filter] [maxWorkers] [depth]
+ * 			filter     -- only runs implementations whose name contains this text, "all" runs everything
+ * 			maxWorkers -- the largest number of worker threads to run, default 2 x the number of cores
+ * 			depth      -- the depth of the task tree, default 21 (about 4M tasks)
+ * 			The speedup column is relative to the first implementation with the same number of workers.
+ * New implementations are added to the TARGETS list in registerImplementations().
+ */
+public class SchedulerBenchmark {
+
+	private static final int WARMUP_RUNS = 2;
+	private static final int MEASURED_RUNS = 3;
+	// the work of one task, a few dozen nanoseconds: enough to be a task, small enough that the Stacks still matter
+	private static final int WORK_ITERATIONS = 32;
+	// how long idle workers wait for the count to reach the total before the run fails
+	private static final long DEADLINE_NANOS = 60_000_000_000L;
+
+	private static final List<Impl> TARGETS = new ArrayList<>();
+
+	interface Worker {
+		/*
+		 * The three operations the scheduler needs from the Stack of one worker.
+		 * push() and pop() are only called by the worker that owns it, steal() by the other workers.
+		 * pop() and steal() return -1 if the Stack is empty.
+		 */
+		void push(int task);
+
+		int pop();
+
+		int steal();
+	}
+
+	static class Impl {
+		/*
+		 * One implementation under test: its name and how to create the empty Stack of one worker.
+		 */
+		final String name;
+		final Supplier<Worker> create;
+
+		Impl(String name, Supplier<Worker> create) {
+			this.name = name;
+			this.create = create;
+		}
+	}
+
+	private static void registerImplementations() {
+		/*
+		 * Lists every implementation the benchmark runs against.
+		 */
+		TARGETS.add(new Impl("locked ArrayStack", () -> {
+			ArrayStack s = new ArrayStack();
+			return new Worker() {
+				public synchronized void push(int task) {
+					s.push(task);
+				}
+
+				public synchronized int pop() {
+					return s.pop();
+				}
+
+				public synchronized int steal() {
+					return s.pop();
+				}
+			};
+		}));
+		TARGETS.add(new Impl("WorkStealingDeque", () -> {
+			WorkStealingDeque d = new WorkStealingDeque();
+			return new Worker() {
+				public void push(int task) {
+					d.push(task);
+				}
+
+				public int pop() {
+					return d.pop();
+				}
+
+				public int steal() {
+					return d.steal();
+				}
+			};
+		}));
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		String filter = args.length > 0 && !args[0].equals("all") ? args[0] : "";
+		int maxWorkers = args.length > 1 ? Integer.parseInt(args[1]) : 2 * Runtime.getRuntime().availableProcessors();
+		int depth = args.length > 2 ? Integer.parseInt(args[2]) : 21;
+		if (depth < 0 || depth > 29) {
+			throw new IllegalArgumentException("depth must be between 0 and 29");
+		}
+		registerImplementations();
+
+		System.out.printf("%-32s %10s %16s %10s %12s %10s%n", "implementation", "workers", "tasks/s", "ms", "steals", "speedup");
+		for (int workers = 1; workers <= maxWorkers; workers *= 2) {
+			long baseline = 0;
+			for (Impl impl : TARGETS) {
+				if (!impl.name.contains(filter)) {
+					continue;
+				}
+				for (int i = 0; i < WARMUP_RUNS; i++) {
+					run(impl, workers, depth);
+				}
+				long best = Long.MAX_VALUE;
+				long steals = 0;
+				for (int i = 0; i < MEASURED_RUNS; i++) {
+					long[] result = run(impl, workers, depth);
+					if (result[0] < best) {
+						best = result[0];
+						steals = result[1];
+					}
+				}
+				if (baseline == 0) {
+					baseline = best;
+				}
+				System.out.printf("%-32s %10d %16.0f %10.1f %12d %9.2fx%n", impl.name, workers,
+						((1L << (depth + 1)) - 1) * 1e9 / best, best / 1e6, steals, (double) baseline / best);
+			}
+		}
+	}
+
+	static long[] run(Impl impl, int workers, int depth) throws InterruptedException {
+		/*
+		 * Runs the task tree once and returns its duration in nanoseconds and the number of successful steals.
+		 * Throws IllegalStateException if the workers did not run every task exactly once,
+		 * which means the implementation lost or duplicated a task: a duplicated task pushes the count past the total,
+		 * which also ends the run, and a lost task keeps it below the total until the deadline.
+		 */
+		Worker[] stacks = new Worker[workers];
+		for (int i = 0; i < workers; i++) {
+			stacks[i] = impl.create.get();
+		}
+		// pushed before the threads start, which publishes it to worker 0
+		stacks[0].push(depth);
+
+		long total = (1L << (depth + 1)) - 1;
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicLong done = new AtomicLong();
+		AtomicLong steals = new AtomicLong();
+		AtomicLong checksum = new AtomicLong();
+		List<Thread> threads = new ArrayList<>();
+
+		for (int w = 0; w < workers; w++) {
+			int self = w;
+			threads.add(new Thread(() -> {
+				await(start);
+				long deadline = System.nanoTime() + DEADLINE_NANOS;
+				Worker own = stacks[self];
+				long executed = 0;
+				long stolen = 0;
+				long sum = 0;
+				while (true) {
+					int task = own.pop();
+					if (task < 0) {
+						done.addAndGet(executed);
+						executed = 0;
+						if (done.get() >= total || System.nanoTime() - deadline > 0) {
+							break;
+						}
+						task = steal(stacks, self);
+						if (task < 0) {
+							Thread.yield();
+							continue;
+						}
+						stolen += 1;
+					}
+					sum += work(task);
+					executed += 1;
+					if (task > 0) {
+						own.push(task - 1);
+						own.push(task - 1);
+					}
+				}
+				steals.addAndGet(stolen);
+				checksum.addAndGet(sum);
+			}));
+		}
+		for (Thread t : threads) {
+			t.start();
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread t : threads) {
+			t.join();
+		}
+		long nanos = System.nanoTime() - begin;
+
+		if (done.get() != total) {
+			throw new IllegalStateException("lost or duplicated tasks: ran " + done.get() + " of " + total);
+		}
+		if (checksum.get() != expectedChecksum(depth)) {
+			throw new IllegalStateException("lost or duplicated tasks: checksum " + checksum.get());
+		}
+		return new long[] {nanos, steals.get()};
+	}
+
+	private static int steal(Worker[] stacks, int self) {
+		/*
+		 * Tries every other worker once, starting from a random one, and returns the first task stolen.
+		 * Returns -1 if every other worker was empty.
+		 */
+		int n = stacks.length;
+		int first = n == 1 ? 0 : ThreadLocalRandom.current().nextInt(n);
+		for (int i = 0; i < n; i++) {
+			int victim = (first + i) % n;
+			if (victim == self) {
+				continue;
+			}
+			int task = stacks[victim].steal();
+			if (task >= 0) {
+				return task;
+			}
+		}
+		return -1;
+	}
+
+	static int work(int task) {
+		/*
+		 * The work of one task: a few rounds of xorshift seeded by the task, so the JIT can not skip it.
+		 * Returns a small non-negative number that depends on the task, which the checksum adds up.
+		 */
+		int x = task * 0x9E3779B9 + 1;
+		for (int i = 0; i < WORK_ITERATIONS; i++) {
+			x ^= x << 13;
+			x ^= x >>> 17;
+			x ^= x << 5;
+		}
+		return (x & 0xFF) + 1;
+	}
+
+	private static long expectedChecksum(int depth) {
+		/*
+		 * Returns the sum of work() over the whole tree: there are 2^(depth - d) tasks d.
+		 */
+		long ret = 0;
+		for (int d = 0; d <= depth; d++) {
+			ret += (1L << (depth - d)) * work(d);
+		}
+		return ret;
+	}
+
+	private static void await(CountDownLatch latch) {
+		/*
+		 * Waits for the start signal, so every worker begins at the same time.
+		 */
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+import java.util.PrimitiveIterator;
+
+/*
+ * Author: Khanh Nguyen
+ * File: SequenceHash.java
+ * Purpose: This file implements SequenceHash, the rolling hash that the Stacks and Queues keep up to date so that
+ * 			hashCode() is O(1) and equals() can reject most unequal structures without looking at their elements.
+ * 			The hash of the elements a0, a1, ..., a(n-1) is the polynomial
+ * 				term(a0) + term(a1) * BASE + term(a2) * BASE^2 + ... + term(a(n-1)) * BASE^(n-1)
+ * 			computed with int overflow (so modulo 2^32). For a Stack a0 is the bottom element, for a Queue the front.
+ * 			Every structure also keeps power = BASE^n. Adding at the end (push, enqueue) adds term * power;
+ * 			removing at the end (pop) multiplies power by INVERSE first and subtracts term * power;
+ * 			removing at the start (dequeue) subtracts the term and multiplies by INVERSE, which shifts every element
+ * 			down one position. BASE is odd, so it has an inverse modulo 2^32 and every update is O(1).
+ * 			Two structures of the same kind (Stack or Queue) holding the same elements always have the same hash,
+ * 			whatever class they are, which is what lets an ArrayStack equal a ListStack.
+ */
+final class SequenceHash {
+
+	static final int BASE = 0x9E3779B1;
+	static final int INVERSE = inverse(BASE);
+	// so that a run of zeros does not hash like an empty structure
+	private static final int SALT = 0x5BD1E995;
+
+	private SequenceHash() {
+	}
+
+	private static int inverse(int odd) {
+		/*
+		 * Returns the inverse of odd modulo 2^32, by Newton's iteration: each step doubles the number of correct bits.
+		 */
+		int ret = odd;
+		for (int i = 0; i < 5; i++) {
+			ret *= 2 - odd * ret;
+		}
+		return ret;
+	}
+
+	static int term(int value) {
+		/*
+		 * Returns the contribution of one element, before it is multiplied by its power of BASE.
+		 */
+		return value ^ SALT;
+	}
+
+	static int mix(int value) {
+		/*
+		 * Returns a scrambled value for hashes that do not depend on order (a sum of mix() over the elements),
+		 * which is what IntPriorityQueue keeps, since its heap order is not part of its contents.
+		 */
+		int h = term(value) * BASE;
+		return h ^ (h >>> 16);
+	}
+
+	static boolean sameElements(int size1, int hash1, PrimitiveIterator.OfInt elements1,
+			int size2, int hash2, PrimitiveIterator.OfInt elements2) {
+		/*
+		 * Compares two structures of the same kind: rejects them right away if their size or hash differ,
+		 * and otherwise walks both iterators side by side.
+		 */
+		if (size1 != size2 || hash1 != hash2) {
+			return false;
+		}
+		while (elements1.hasNext()) {
+			if (elements1.nextInt() != elements2.nextInt()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,252 @@
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Author: Khanh Nguyen
+ * File: ShardedArrayQueue.java
+ * Purpose: This file implement the ShardedArrayQueue Class that implements QueueInterface.
+ * 			ShardedArrayQueue is a bounded, lock-free Queue for very many producer and consumer threads.
+ * 			A single ConcurrentArrayQueue serializes every producer on one tail counter, so past a few dozen producers
+ * 			they mostly retry their CAS. ShardedArrayQueue spreads the threads over N ConcurrentArrayQueues (the shards),
+ * 			so each tail counter is only shared by the threads of one shard.
+ * Placement: every thread gets a home shard the first time it uses a given ShardedArrayQueue, handed out round-robin
+ * 			by that Queue, so the first N threads to use it land on N different shards, whatever threads used other
+ * 			Queues before. A thread can have a different home in each Queue.
+ * 			By default a producer always enqueues to its home shard (thread affinity). With choiceOfTwo, a producer picks
+ * 			two random shards and enqueues to the shorter one, which evens out the shards when some producers are much
+ * 			busier than others.
+ * Consumers: a consumer dequeues from its home shard first, and when that is empty steals from the other shards in turn,
+ * 			so no element waits in a shard that has no consumer of its own.
+ * Ordering: the Queue is NOT FIFO as a whole. Each shard is FIFO, so with thread affinity the elements of one producer
+ * 			are dequeued in the order that producer enqueued them (per-producer FIFO), but elements of different producers
+ * 			can be dequeued in any order, whatever order they were enqueued in.
+ * 			With choiceOfTwo the elements of one producer go to different shards, so there is no ordering guarantee at all.
+ * Methods: The basic methods for a Queue is implemented, including dequeue(); enqueue(); peek();isEmpty(); size(); clear() and toString();
+ * 			offer() is the non-throwing version of enqueue() that returns false when the chosen shard is full.
+ * 			size(), isEmpty(), peek(), toArray() and toString() go over every shard and only give a snapshot.
+ * 			With thread affinity, the Queue is full for a producer when its home shard is full, even if other shards have space.
+ */
+public class ShardedArrayQueue implements QueueInterface {
+
+	private final ConcurrentArrayQueue[] shards;
+	// hands out home shards round-robin to the threads that use this Queue
+	private final AtomicInteger nextHome = new AtomicInteger();
+	private final ThreadLocal<Integer> home = ThreadLocal.withInitial(nextHome::getAndIncrement);
+	private final int mask;
+	private final boolean choiceOfTwo;
+
+	public ShardedArrayQueue() {
+		/*
+		 * Constructor
+		 * Initialize an empty ShardedArrayQueue object with one shard per core (rounded up to a power of two),
+		 * each holding up to 1024 elements, with thread affinity.
+		 */
+		this(Runtime.getRuntime().availableProcessors(), 1024, false);
+	}
+
+	public ShardedArrayQueue(int shardCount, int shardCapacity, boolean choiceOfTwo) {
+		/*
+		 * Constructor
+		 * Initialize an empty ShardedArrayQueue object.
+		 * Argument shardCount -- is the number of shards, rounded up to the next power of two.
+		 * Argument shardCapacity -- is the maximum number of elements of each shard, rounded up to the next power of two.
+		 * Argument choiceOfTwo -- if true, producers enqueue to the shorter of two random shards instead of their home
+		 * 			shard, which gives up per-producer FIFO.
+		 */
+		if (shardCount < 1 || shardCount > (1 << 16)) {
+			throw new IllegalArgumentException("shardCount must be between 1 and 2^16");
+		}
+		int length = shardCount == 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+		if ((long) length * shardCapacity > (1 << 30)) {
+			throw new IllegalArgumentException("the shards can not hold more than 2^30 elements together");
+		}
+		this.shards = new ConcurrentArrayQueue[length];
+		for (int i = 0; i < length; i++) {
+			shards[i] = new ConcurrentArrayQueue(shardCapacity);
+		}
+		this.mask = length - 1;
+		this.choiceOfTwo = choiceOfTwo;
+	}
+
+	public int shardCount() {
+		/*
+		 * Returns the number of shards.
+		 */
+		return shards.length;
+	}
+
+	public int capacity() {
+		/*
+		 * Returns the maximum number of elements all the shards can hold together.
+		 */
+		return shards.length * shards[0].capacity();
+	}
+
+	private int home() {
+		/*
+		 * Helper function
+		 * Returns the home index of the calling thread in this Queue; the shard is home() & mask.
+		 */
+		return home.get();
+	}
+
+	public boolean offer(int value) {
+		/*
+		 * offer() adds a new element to the home shard of the calling thread, or with choiceOfTwo to the shorter of
+		 * two random shards (the other one if the shorter is full).
+		 * Argument int value -- is the value of the new element to be added.
+		 * Returns true if the element was added, false if the chosen shard is full.
+		 */
+		if (!choiceOfTwo || shards.length == 1) {
+			return shards[home() & mask].offer(value);
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		ConcurrentArrayQueue first = shards[random.nextInt(shards.length)];
+		ConcurrentArrayQueue second = shards[random.nextInt(shards.length)];
+		if (second.size() < first.size()) {
+			ConcurrentArrayQueue swap = first;
+			first = second;
+			second = swap;
+		}
+		return first.offer(value) || second.offer(value);
+	}
+
+	@Override
+	public void enqueue(int value) {
+		/*
+		 * This method adds a new element to the Queue, see offer() for the shard it goes to.
+		 * Argument int value -- is the value of the new element to be added.
+		 * Throws IllegalStateException if the chosen shard is full, since the Queue is bounded and never blocks.
+		 */
+		if (!offer(value)) {
+			throw new IllegalStateException("Queue full");
+		}
+	}
+
+	@Override
+	public int dequeue() {
+		/*
+		 * This method removes an element from the home shard of the calling thread, or if that is empty,
+		 * steals one from the next non-empty shard.
+		 * Returns the value of the removed element
+		 * If every shard is empty, returns -1 and do nothing
+		 */
+		int start = home();
+		for (int i = 0; i < shards.length; i++) {
+			long value = shards[(start + i) & mask].poll();
+			if (value != ConcurrentArrayQueue.EMPTY) {
+				return (int) value;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int drainTo(int[] dst, int max) {
+		/*
+		 * This method removes up to max elements and stores them at the start of dst,
+		 * emptying the home shard of the calling thread first and then stealing from the other shards in turn.
+		 * Returns the number of elements removed. The elements of one shard stay in order in dst.
+		 */
+		int n = Math.min(max, dst.length);
+		int count = 0;
+		int start = home();
+		for (int i = 0; i < shards.length && count < n; i++) {
+			ConcurrentArrayQueue shard = shards[(start + i) & mask];
+			while (count < n) {
+				long value = shard.poll();
+				if (value == ConcurrentArrayQueue.EMPTY) {
+					break;
+				}
+				dst[count] = (int) value;
+				count += 1;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * This method returns the value of the element the calling thread would dequeue next:
+		 * the front of its home shard, or of the next non-empty shard.
+		 * If every shard is empty, returns -1.
+		 * If another thread dequeues at the same time, the returned element may already be gone.
+		 */
+		int start = home();
+		for (int i = 0; i < shards.length; i++) {
+			ConcurrentArrayQueue shard = shards[(start + i) & mask];
+			if (!shard.isEmpty()) {
+				return shard.peek();
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if every shard is empty
+		 * returns false otherwise
+		 */
+		for (ConcurrentArrayQueue shard : shards) {
+			if (!shard.isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in all the shards together.
+		 */
+		int ret = 0;
+		for (ConcurrentArrayQueue shard : shards) {
+			ret += shard.size();
+		}
+		return ret;
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears every shard. Elements enqueued by other threads at the same time may or may not be cleared.
+		 */
+		for (ConcurrentArrayQueue shard : shards) {
+			shard.clear();
+		}
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements of every shard, shard by shard, each shard from front to back.
+		 * The Queue is only FIFO per shard, so this is not the order dequeue() would return them in.
+		 */
+		int[][] parts = new int[shards.length][];
+		int length = 0;
+		for (int i = 0; i < shards.length; i++) {
+			parts[i] = shards[i].toArray();
+			length += parts[i].length;
+		}
+		int[] ret = new int[length];
+		int copied = 0;
+		for (int[] part : parts) {
+			System.arraycopy(part, 0, ret, copied, part.length);
+			copied += part.length;
+		}
+		return ret;
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the Queue, shard by shard.
+		 * The format is similar to how an Array is represented in String.
+		 */
+		return ElementFormat.toString(Arrays.stream(toArray()).iterator());
+	}
+
+}
@@ -0,0 +1,294 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+
+/*
+ * Author: Khanh Nguyen
+ * File: SpscArrayQueue.java
+ * Purpose: This file implement the SpscArrayQueue Class that implements QueueInterface.
+ * 			SpscArrayQueue is a bounded, wait-free Queue for exactly one producer thread and one consumer thread.
+ * 			It uses a Java Array as a circular buffer (like ArrayQueue). Only the producer writes the tail index and only
+ * 			the consumer writes the head index, so neither needs a CAS: each side publishes its index with an ordered
+ * 			(release) write, and every operation finishes in a bounded number of steps.
+ * 			Each side also keeps a local copy of the other side's index, and only reads the shared one again when the
+ * 			local copy says the Queue is full (producer) or empty (consumer). The head and tail fields are kept on
+ * 			separate cache lines, so in the common case the two threads do not touch each other's cache line at all.
+ * Methods: The basic methods for a Queue is implemented, including dequeue(); enqueue(); peek();isEmpty(); size(); clear() and toString();
+ * 			offer() is the non-throwing version of enqueue() that returns false when the Queue is full.
+ * 			enqueue() and offer() must only be called by the producer thread; dequeue(), peek() and clear() only by the
+ * 			consumer thread. size(), isEmpty(), toArray() and toString() can be called from any thread and only give
+ * 			a snapshot; toString() and appendTo() write the snapshot taken by toArray() one element at a time.
+ * The capacity is rounded up to a power of two so slot indexes are computed with a mask.
+ */
+public class SpscArrayQueue extends SpscArrayQueuePad2 implements QueueInterface {
+
+	private final int[] items;
+	private final int mask;
+
+	public SpscArrayQueue() {
+		/*
+		 * Constructor
+		 * Initialize an empty SpscArrayQueue object that holds up to 1024 elements.
+		 */
+		this(1024);
+	}
+
+	public SpscArrayQueue(int capacity) {
+		/*
+		 * Constructor
+		 * Initialize an empty SpscArrayQueue object.
+		 * Argument capacity -- is the maximum number of elements, rounded up to the next power of two.
+		 */
+		if (capacity < 2 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("capacity must be between 2 and 2^30");
+		}
+		int length = Integer.highestOneBit(capacity - 1) << 1;
+		this.items = new int[length];
+		this.mask = length - 1;
+	}
+
+	public int capacity() {
+		/*
+		 * Returns the maximum number of elements the Queue can hold.
+		 */
+		return items.length;
+	}
+
+	public boolean offer(int value) {
+		/*
+		 * offer() adds a new element to the end of the Queue if there is space. Producer thread only.
+		 * Argument int value -- is the value of the new element to be added.
+		 * Returns true if the element was added, false if the Queue is full.
+		 */
+		long t = tail;
+		if (t - headCache >= items.length) {
+			headCache = getHead();
+			if (t - headCache >= items.length) {
+				return false;
+			}
+		}
+		items[(int) t & mask] = value;
+		// the element is written before the new tail becomes visible to the consumer
+		setTail(t + 1);
+		return true;
+	}
+
+	@Override
+	public void enqueue(int value) {
+		/*
+		 * This method adds a new element to the end of the Queue. Producer thread only.
+		 * Argument int value -- is the value of the new element to be added.
+		 * Throws IllegalStateException if the Queue is full, since the Queue is bounded and never blocks.
+		 */
+		if (!offer(value)) {
+			throw new IllegalStateException("Queue full");
+		}
+	}
+
+	@Override
+	public void enqueueAll(int[] src, int off, int len) {
+		/*
+		 * This method adds len elements of src, starting at index off, to the end of the Queue in order. Producer thread only.
+		 * Throws IllegalStateException, without adding anything, if the Queue does not have space for all of them.
+		 * The elements are copied in with at most two System.arraycopy calls and published with one tail write.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		long t = tail;
+		if (t + len - headCache > items.length) {
+			headCache = getHead();
+			if (t + len - headCache > items.length) {
+				throw new IllegalStateException("Queue full");
+			}
+		}
+		int index = (int) t & mask;
+		int firstRun = Math.min(len, items.length - index);
+		System.arraycopy(src, off, items, index, firstRun);
+		System.arraycopy(src, off + firstRun, items, 0, len - firstRun);
+		setTail(t + len);
+	}
+
+	@Override
+	public int dequeue() {
+		/*
+		 * This method removes the element at the start of the Queue. Consumer thread only.
+		 * Returns the value of the removed element
+		 * If empty Queue, returns -1 and do nothing
+		 */
+		long h = head;
+		if (h >= tailCache) {
+			tailCache = getTail();
+			if (h >= tailCache) {
+				return -1;
+			}
+		}
+		int ret = items[(int) h & mask];
+		// the element is read before the slot is handed back to the producer
+		setHead(h + 1);
+		return ret;
+	}
+
+	@Override
+	public int drainTo(int[] dst, int max) {
+		/*
+		 * This method removes up to max elements from the start of the Queue and stores them in order at the start of dst.
+		 * Consumer thread only. Returns the number of elements removed.
+		 * The tail is read once for the whole batch and the slots are handed back with one head write.
+		 */
+		long h = head;
+		tailCache = getTail();
+		int n = (int) Math.max(0, Math.min(Math.min(max, dst.length), tailCache - h));
+		int index = (int) h & mask;
+		int firstRun = Math.min(n, items.length - index);
+		System.arraycopy(items, index, dst, 0, firstRun);
+		System.arraycopy(items, 0, dst, firstRun, n - firstRun);
+		setHead(h + n);
+		return n;
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * This method Returns the value of the front element in the Queue. Consumer thread only.
+		 * If empty Queue, returns -1.
+		 * This method does not alter the Queue in any way.
+		 */
+		long h = head;
+		if (h >= tailCache) {
+			tailCache = getTail();
+			if (h >= tailCache) {
+				return -1;
+			}
+		}
+		return items[(int) h & mask];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the Queue is empty
+		 * returns false otherwise
+		 */
+		return size() == 0;
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in the Queue
+		 * The head is read before the tail, so the result is never negative.
+		 */
+		long h = getHead();
+		long t = getTail();
+		return (int) Math.min(t - h, items.length);
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears all element from the Queue. Consumer thread only.
+		 * Elements the producer adds while clear() runs may or may not be cleared.
+		 */
+		tailCache = getTail();
+		setHead(tailCache);
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the Queue
+		 * The format is similar to how an Array is represented in String.
+		 */
+		return ElementFormat.toString(Arrays.stream(toArray()).iterator());
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from front to back, as they were when head and tail were read.
+		 * The snapshot never holds more than capacity() elements. The head is read again after the copy, and the
+		 * elements the consumer removed in the meantime are left out, since the producer may already have reused
+		 * their slots.
+		 */
+		long h = getHead();
+		long t = getTail();
+		int n = (int) Math.min(Math.max(0, t - h), items.length);
+		int[] ret = new int[n];
+		for (int i = 0; i < n; i++) {
+			ret[i] = items[(int) (h + i) & mask];
+		}
+		// the copied slots are read before head is read again
+		VarHandle.loadLoadFence();
+		long skip = Math.min(getHead() - h, n);
+		return skip <= 0 ? ret : Arrays.copyOfRange(ret, (int) skip, n);
+	}
+
+}
+
+/*
+ * The classes below only exist to lay out the producer fields and the consumer fields of SpscArrayQueue on their own
+ * cache lines, the same way as for ConcurrentArrayQueue.
+ */
+abstract class SpscArrayQueuePad0 {
+	long p00, p01, p02, p03, p04, p05, p06, p07;
+	long p08, p09, p10, p11, p12, p13, p14, p15;
+}
+
+abstract class SpscArrayQueueProducer extends SpscArrayQueuePad0 {
+
+	private static final VarHandle TAIL;
+	static {
+		try {
+			TAIL = MethodHandles.lookup().findVarHandle(SpscArrayQueueProducer.class, "tail", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	// written only by the producer
+	long tail;
+	// the producer's last read of head
+	long headCache;
+
+	final long getTail() {
+		return (long) TAIL.getAcquire(this);
+	}
+
+	final void setTail(long value) {
+		TAIL.setRelease(this, value);
+	}
+}
+
+abstract class SpscArrayQueuePad1 extends SpscArrayQueueProducer {
+	long p20, p21, p22, p23, p24, p25, p26, p27;
+	long p28, p29, p30, p31, p32, p33, p34, p35;
+}
+
+abstract class SpscArrayQueueConsumer extends SpscArrayQueuePad1 {
+
+	private static final VarHandle HEAD;
+	static {
+		try {
+			HEAD = MethodHandles.lookup().findVarHandle(SpscArrayQueueConsumer.class, "head", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	// written only by the consumer
+	long head;
+	// the consumer's last read of tail
+	long tailCache;
+
+	final long getHead() {
+		return (long) HEAD.getAcquire(this);
+	}
+
+	final void setHead(long value) {
+		HEAD.setRelease(this, value);
+	}
+}
+
+abstract class SpscArrayQueuePad2 extends SpscArrayQueueConsumer {
+	long p40, p41, p42, p43, p44, p45, p46, p47;
+	long p48, p49, p50, p51, p52, p53, p54, p55;
+}
@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.util.Objects;
+
 interface StackInterface {
 
     /*
@@ -36,4 +39,57 @@ interface StackInterface {
      */
     void clear();
 
+    /*
+     * Push len elements of src, starting at index off, in order, so
+     * src[off + len - 1] ends up on top of the stack.
+     * 
+     * A bounded stack that runs out of space throws IllegalStateException.
+     */
+    default void pushAll(int[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        for (int i = off; i < off + len; i++) {
+            push(src[i]);
+        }
+    }
+
+    /*
+     * Pop up to max elements and store them at the start of dst, in the
+     * order they are popped, so dst[0] is the former top of the stack.
+     * 
+     * Returns the number of elements removed, which is less than max if
+     * the stack runs empty or dst is shorter than max.
+     */
+    default int popInto(int[] dst, int max) {
+        int n = Math.min(max, dst.length);
+        int count = 0;
+        while (count < n && !isEmpty()) {
+            dst[count] = pop();
+            count += 1;
+        }
+        return count;
+    }
+
+    /*
+     * Return the elements in the order pop() would return them, top
+     * first, without changing the stack.
+     */
+    int[] toArray();
+
+    /*
+     * Write the elements to out in the toString() format, from bottom
+     * to top, stopping after limit elements; if more are left the
+     * output ends with ",...}". The elements are appended one at a
+     * time, so a large stack is never built into a single String.
+     * 
+     * Exception: a class that is also a QueueInterface has a single
+     * appendTo() and toString() for both, and they follow the queue
+     * order, front to back. IntArrayDeque keeps its top at the front,
+     * so it writes the stack from top to bottom: after push(1),
+     * push(2), push(3) it writes {3,2,1} where ArrayStack writes
+     * {1,2,3}. toArray() is top first for every class.
+     */
+    default void appendTo(Appendable out, int limit) throws IOException {
+        ElementFormat.appendTo(out, ElementFormat.reversed(toArray()), limit);
+    }
+
 }
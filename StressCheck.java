@@ -0,0 +1,742 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/*
+ * Author: Khanh Nguyen
+ * File: StressCheck.java
+ * Purpose: This file implements the stress checks for the thread-safe implementations. The benchmarks only compare a
+ * 			count and a sum, which a lost element paired with a duplicate can pass; these checks give every element a
+ * 			unique value (producer p adds p * perProducer + i) and check that each one is received exactly once.
+ * 			They also check the ordering each implementation promises, under contention.
+ * 			The blocking Queue and Stack are loaded with many more consumers than elements fit in them, so most
+ * 			consumers are parked in take() at any time, and every wait has a deadline: a lost wakeup makes the check
+ * 			throw instead of hang. Their timeouts and the signalAll() of the batch methods and clear() are checked too.
+ * 			Every check throws IllegalStateException with what went wrong, the same way as the benchmarks' verification.
+ * Usage: java StressCheck [filter] [threads]
+ * 			filter  -- only runs checks whose name contains this text, "all" runs everything
+ * 			threads -- the number of producers (and of consumers), default 2 x the number of cores, at least 4
+ * New checks are added to the CHECKS map in registerChecks().
+ */
+public class StressCheck {
+
+	private static final int ELEMENTS = 1 << 20;
+	// every elimination offer waits for a pop for a while, so the exchange check makes fewer of them
+	private static final int OFFERS = 1 << 16;
+	// small, so producers wait in put() and offer() as often as consumers wait in take()
+	private static final int BLOCKING_CAPACITY = 16;
+	// how long a check waits for threads that should finish, before it reports a lost wakeup
+	private static final long DEADLINE_MILLIS = 60_000;
+
+	private static final Map<String, Check> CHECKS = new LinkedHashMap<>();
+
+	interface Check {
+		/*
+		 * Runs one check and returns a note for the report, or "". Throws IllegalStateException if it fails.
+		 */
+		String run(int threads) throws InterruptedException;
+	}
+
+	private static void registerChecks() {
+		/*
+		 * Lists every check.
+		 */
+		CHECKS.put("ConcurrentListStack exactly-once", threads -> {
+			stackExactlyOnce(new ConcurrentListStack(), threads);
+			return "";
+		});
+		// one slot, so every failed CAS meets the other threads in the elimination array
+		CHECKS.put("ConcurrentListStack-width1 exactly-once", threads -> {
+			stackExactlyOnce(new ConcurrentListStack(1), threads);
+			return "";
+		});
+		CHECKS.put("ConcurrentListStack-width0 exactly-once", threads -> {
+			stackExactlyOnce(new ConcurrentListStack(0), threads);
+			return "";
+		});
+		CHECKS.put("ConcurrentListStack LIFO drain", threads -> {
+			stackLifoDrain(new ConcurrentListStack(1), threads);
+			return "";
+		});
+		CHECKS.put("ConcurrentListStack elimination exchange", StressCheck::eliminationExchange);
+		CHECKS.put("BlockingArrayQueue load", threads -> blockingLoad(Blocking.of(new BlockingArrayQueue(BLOCKING_CAPACITY)), threads));
+		CHECKS.put("BlockingArrayStack load", threads -> blockingLoad(Blocking.of(new BlockingArrayStack(BLOCKING_CAPACITY)), threads));
+		CHECKS.put("BlockingArrayQueue timeouts and wakeups", threads -> {
+			blockingWakeups(() -> Blocking.of(new BlockingArrayQueue(BLOCKING_CAPACITY)));
+			return "";
+		});
+		CHECKS.put("BlockingArrayStack timeouts and wakeups", threads -> {
+			blockingWakeups(() -> Blocking.of(new BlockingArrayStack(BLOCKING_CAPACITY)));
+			return "";
+		});
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		String filter = args.length > 0 && !args[0].equals("all") ? args[0] : "";
+		int threads = args.length > 1 ? Integer.parseInt(args[1])
+				: Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+		registerChecks();
+
+		for (Map.Entry<String, Check> check : CHECKS.entrySet()) {
+			if (!check.getKey().contains(filter)) {
+				continue;
+			}
+			long begin = System.nanoTime();
+			String note = check.getValue().run(threads);
+			System.out.printf("%-48s %4d threads  ok  %8.1f ms  %s%n", check.getKey(), threads,
+					(System.nanoTime() - begin) / 1e6, note);
+		}
+	}
+
+	static void stackExactlyOnce(ConcurrentListStack stack, int threads) throws InterruptedException {
+		/*
+		 * Producers push unique values, one at a time and every eighth time four at once with pushAll(),
+		 * while consumers pop them, one at a time and every eighth time up to four with popInto().
+		 * Checks that every value is popped exactly once.
+		 */
+		int perProducer = ELEMENTS / threads / 4 * 4;
+		AtomicInteger producing = new AtomicInteger(threads);
+		List<Runnable> work = new ArrayList<>();
+		Received received = new Received(threads);
+		for (int p = 0; p < threads; p++) {
+			int base = p * perProducer;
+			work.add(() -> {
+				int[] batch = new int[4];
+				for (int i = 0; i < perProducer; i += 4) {
+					if ((i & 31) == 0) {
+						for (int j = 0; j < 4; j++) {
+							batch[j] = base + i + j;
+						}
+						stack.pushAll(batch, 0, 4);
+					} else {
+						for (int j = 0; j < 4; j++) {
+							stack.push(base + i + j);
+						}
+					}
+				}
+				producing.decrementAndGet();
+			});
+		}
+		for (int c = 0; c < threads; c++) {
+			IntList mine = received.part(c);
+			work.add(() -> {
+				int[] batch = new int[4];
+				for (int n = 0; ; n++) {
+					boolean done = producing.get() == 0;
+					if ((n & 7) == 0) {
+						int count = stack.popInto(batch, 4);
+						for (int j = 0; j < count; j++) {
+							mine.add(batch[j]);
+						}
+						if (count > 0) {
+							continue;
+						}
+					} else {
+						int value = stack.pop();
+						if (value >= 0) {
+							mine.add(value);
+							continue;
+						}
+					}
+					// empty after every producer was done, so nothing more can come
+					if (done) {
+						break;
+					}
+					Thread.yield();
+				}
+			});
+		}
+		runAll(work);
+		received.checkExactlyOnce(threads * perProducer);
+		if (!stack.isEmpty() || stack.size() != 0 || stack.peek() != -1) {
+			throw new IllegalStateException("Stack not empty after every element was popped: " + stack);
+		}
+	}
+
+	static void stackLifoDrain(ConcurrentListStack stack, int threads) throws InterruptedException {
+		/*
+		 * Producers push their values in increasing order at the same time, so their failed CASes go through the
+		 * elimination array with no pop to meet. Then, with no more pushes, the Stack must hold every value once,
+		 * size() must count them all, peek() must be the top, and each producer's values must be in decreasing order
+		 * from the top. Consumers then drain the Stack at the same time while a monitor calls size() and peek():
+		 * every consumer must see each producer's values in decreasing order, size() must never grow,
+		 * and every value must be popped exactly once.
+		 */
+		int perProducer = ELEMENTS / threads;
+		int total = perProducer * threads;
+		List<Runnable> work = new ArrayList<>();
+		for (int p = 0; p < threads; p++) {
+			int base = p * perProducer;
+			work.add(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					stack.push(base + i);
+				}
+			});
+		}
+		runAll(work);
+
+		int[] contents = stack.toArray();
+		if (contents.length != total || stack.size() != total) {
+			throw new IllegalStateException("expected " + total + " elements, size() " + stack.size()
+					+ ", toArray() " + contents.length);
+		}
+		if (stack.peek() != contents[0]) {
+			throw new IllegalStateException("peek() " + stack.peek() + " is not the top " + contents[0]);
+		}
+		checkDecreasing(contents, perProducer, threads, "toArray()");
+
+		work.clear();
+		Received received = new Received(threads);
+		for (int c = 0; c < threads; c++) {
+			IntList mine = received.part(c);
+			work.add(() -> {
+				int value;
+				while ((value = stack.pop()) >= 0) {
+					mine.add(value);
+				}
+			});
+		}
+		AtomicLong failures = new AtomicLong();
+		Thread monitor = new Thread(() -> {
+			int last = Integer.MAX_VALUE;
+			while (true) {
+				int size = stack.size();
+				int top = stack.peek();
+				if (size > last || (top != -1 && (top < 0 || top >= total))) {
+					failures.incrementAndGet();
+				}
+				last = size;
+				if (size == 0) {
+					return;
+				}
+				Thread.yield();
+			}
+		});
+		monitor.start();
+		runAll(work);
+		monitor.join();
+		if (failures.get() > 0) {
+			throw new IllegalStateException("size() grew or peek() returned a value never pushed while draining, "
+					+ failures.get() + " times");
+		}
+		for (int c = 0; c < threads; c++) {
+			checkDecreasing(received.part(c).toArray(), perProducer, threads, "consumer " + c);
+		}
+		received.checkExactlyOnce(total);
+	}
+
+	static String eliminationExchange(int threads) throws InterruptedException {
+		/*
+		 * Runs only the elimination array of a one-slot ConcurrentListStack: producers offer each of their values once
+		 * with eliminatePush(), consumers take offers with eliminatePop(). The head is never touched, so this checks the
+		 * exchange itself, including a push taking its offer back while a pop takes it: the values the consumers took
+		 * must be exactly the values whose eliminatePush() returned true, each taken once, and the Stack must stay empty.
+		 * How many offers meet a pop depends on the threads running at the same time, so it is only reported.
+		 */
+		ConcurrentListStack stack = new ConcurrentListStack(1);
+		int perProducer = OFFERS / threads;
+		AtomicInteger producing = new AtomicInteger(threads);
+		List<Runnable> work = new ArrayList<>();
+		Received delivered = new Received(threads);
+		Received received = new Received(threads);
+		for (int p = 0; p < threads; p++) {
+			int base = p * perProducer;
+			IntList mine = delivered.part(p);
+			work.add(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					if (stack.eliminatePush(new ConcurrentListStack.Node(base + i, null))) {
+						mine.add(base + i);
+					}
+				}
+				producing.decrementAndGet();
+			});
+		}
+		for (int c = 0; c < threads; c++) {
+			IntList mine = received.part(c);
+			work.add(() -> {
+				while (true) {
+					// a push only returns once its offer is taken or taken back, so after the last one the slot stays empty
+					boolean done = producing.get() == 0;
+					ConcurrentListStack.Node offer = stack.eliminatePop();
+					if (offer != null) {
+						mine.add(offer.value);
+					} else if (done) {
+						break;
+					} else {
+						Thread.onSpinWait();
+					}
+				}
+			});
+		}
+		runAll(work);
+		received.checkExactlyOnce(perProducer * threads, delivered);
+		if (!stack.isEmpty()) {
+			throw new IllegalStateException("the elimination exchange changed the Stack: " + stack);
+		}
+		return delivered.count() + " of " + perProducer * threads + " offers exchanged";
+	}
+
+	interface Blocking {
+		/*
+		 * The operations of BlockingQueueInterface and BlockingStackInterface the checks need, under one name.
+		 * Timeouts are in milliseconds. addAll() is enqueueAll() or pushAll(), removeInto() is drainTo() or popInto().
+		 */
+		void put(int value) throws InterruptedException;
+
+		int take() throws InterruptedException;
+
+		boolean offer(int value, long millis) throws InterruptedException;
+
+		int poll(long millis) throws InterruptedException;
+
+		void addAll(int[] src, int off, int len);
+
+		int removeInto(int[] dst, int max);
+
+		void clear();
+
+		int size();
+
+		static Blocking of(BlockingQueueInterface q) {
+			return new Blocking() {
+				public void put(int value) throws InterruptedException {
+					q.put(value);
+				}
+
+				public int take() throws InterruptedException {
+					return q.take();
+				}
+
+				public boolean offer(int value, long millis) throws InterruptedException {
+					return q.offer(value, millis, TimeUnit.MILLISECONDS);
+				}
+
+				public int poll(long millis) throws InterruptedException {
+					return q.poll(millis, TimeUnit.MILLISECONDS);
+				}
+
+				public void addAll(int[] src, int off, int len) {
+					q.enqueueAll(src, off, len);
+				}
+
+				public int removeInto(int[] dst, int max) {
+					return q.drainTo(dst, max);
+				}
+
+				public void clear() {
+					q.clear();
+				}
+
+				public int size() {
+					return q.size();
+				}
+			};
+		}
+
+		static Blocking of(BlockingStackInterface s) {
+			return new Blocking() {
+				public void put(int value) throws InterruptedException {
+					s.put(value);
+				}
+
+				public int take() throws InterruptedException {
+					return s.take();
+				}
+
+				public boolean offer(int value, long millis) throws InterruptedException {
+					return s.offer(value, millis, TimeUnit.MILLISECONDS);
+				}
+
+				public int poll(long millis) throws InterruptedException {
+					return s.poll(millis, TimeUnit.MILLISECONDS);
+				}
+
+				public void addAll(int[] src, int off, int len) {
+					s.pushAll(src, off, len);
+				}
+
+				public int removeInto(int[] dst, int max) {
+					return s.popInto(dst, max);
+				}
+
+				public void clear() {
+					s.clear();
+				}
+
+				public int size() {
+					return s.size();
+				}
+			};
+		}
+	}
+
+	static String blockingLoad(Blocking b, int threads) throws InterruptedException {
+		/*
+		 * Starts many consumers on an empty bounded structure, so they park in take(), then lets the producers run.
+		 * Producers add their unique values with put(), offer(timeout) (retrying when it times out), and addAll() of
+		 * four at once (falling back to put() when there is no space for all four). Consumers remove them with take(),
+		 * poll(timeout) and removeInto(). Checks that every value is received exactly once before the deadline,
+		 * then interrupts the consumers, which must all leave their waits with InterruptedException.
+		 */
+		int producers = threads;
+		int consumers = Math.max(64, 8 * threads);
+		int perProducer = ELEMENTS / 4 / producers / 4 * 4;
+		int total = perProducer * producers;
+		AtomicInteger count = new AtomicInteger();
+		AtomicLong timeouts = new AtomicLong();
+		Received received = new Received(consumers);
+		List<Throwable> failures = new ArrayList<>();
+
+		List<Thread> consuming = new ArrayList<>();
+		AtomicInteger interrupted = new AtomicInteger();
+		for (int c = 0; c < consumers; c++) {
+			IntList mine = received.part(c);
+			consuming.add(start(() -> {
+				int[] batch = new int[4];
+				try {
+					for (int n = 0; ; n++) {
+						if ((n & 7) == 0) {
+							int got = b.removeInto(batch, 4);
+							for (int j = 0; j < got; j++) {
+								mine.add(batch[j]);
+							}
+							count.addAndGet(got);
+						} else if ((n & 7) == 1) {
+							int value = b.poll(1);
+							if (value >= 0) {
+								mine.add(value);
+								count.incrementAndGet();
+							} else {
+								timeouts.incrementAndGet();
+							}
+						} else {
+							mine.add(b.take());
+							count.incrementAndGet();
+						}
+					}
+				} catch (InterruptedException e) {
+					interrupted.incrementAndGet();
+				}
+			}, failures));
+		}
+
+		List<Runnable> work = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			int base = p * perProducer;
+			work.add(() -> {
+				int[] batch = new int[4];
+				try {
+					for (int i = 0; i < perProducer; i += 4) {
+						int kind = (i >> 2) & 3;
+						if (kind == 0) {
+							for (int j = 0; j < 4; j++) {
+								batch[j] = base + i + j;
+							}
+							try {
+								b.addAll(batch, 0, 4);
+							} catch (IllegalStateException full) {
+								for (int j = 0; j < 4; j++) {
+									b.put(batch[j]);
+								}
+							}
+						} else if (kind == 1) {
+							for (int j = 0; j < 4; j++) {
+								while (!b.offer(base + i + j, 1)) {
+									timeouts.incrementAndGet();
+								}
+							}
+						} else {
+							for (int j = 0; j < 4; j++) {
+								b.put(base + i + j);
+							}
+						}
+					}
+				} catch (InterruptedException e) {
+					throw new IllegalStateException("producer interrupted", e);
+				}
+			});
+		}
+		runAll(work);
+		awaitCondition(() -> count.get() >= total, "consumers receiving every element");
+		for (Thread t : consuming) {
+			t.interrupt();
+		}
+		joinAll(consuming, failures);
+		if (interrupted.get() != consumers) {
+			throw new IllegalStateException(consumers - interrupted.get() + " consumers did not stop on interrupt");
+		}
+		received.checkExactlyOnce(total);
+		if (b.size() != 0) {
+			throw new IllegalStateException(b.size() + " elements left after every element was received");
+		}
+		return consumers + " consumers, " + timeouts.get() + " timeouts";
+	}
+
+	static void blockingWakeups(Supplier<Blocking> create) throws InterruptedException {
+		/*
+		 * Checks the waits one at a time:
+		 * poll(timeout) on an empty structure and offer(timeout) on a full one wait at least the timeout,
+		 * then return -1 and false and change nothing;
+		 * addAll() of n elements wakes n consumers parked in take();
+		 * removeInto() and clear() on a full structure each wake every producer parked in put().
+		 */
+		Blocking b = create.get();
+		long begin = System.nanoTime();
+		if (b.poll(20) != -1 || System.nanoTime() - begin < TimeUnit.MILLISECONDS.toNanos(20) || b.size() != 0) {
+			throw new IllegalStateException("poll(timeout) on an empty structure did not wait and return -1");
+		}
+		for (int i = 0; i < BLOCKING_CAPACITY; i++) {
+			b.put(i);
+		}
+		begin = System.nanoTime();
+		if (b.offer(-5, 20) || System.nanoTime() - begin < TimeUnit.MILLISECONDS.toNanos(20) || b.size() != BLOCKING_CAPACITY) {
+			throw new IllegalStateException("offer(timeout) on a full structure did not wait and return false");
+		}
+
+		// addAll() wakes every consumer it has an element for
+		b = create.get();
+		Blocking taking = b;
+		Received received = new Received(BLOCKING_CAPACITY);
+		List<Throwable> failures = new ArrayList<>();
+		List<Thread> waiting = new ArrayList<>();
+		for (int c = 0; c < BLOCKING_CAPACITY; c++) {
+			IntList mine = received.part(c);
+			waiting.add(start(() -> {
+				try {
+					mine.add(taking.take());
+				} catch (InterruptedException e) {
+					throw new IllegalStateException("consumer interrupted", e);
+				}
+			}, failures));
+		}
+		awaitParked(waiting);
+		int[] values = new int[BLOCKING_CAPACITY];
+		Arrays.setAll(values, i -> i);
+		b.addAll(values, 0, values.length);
+		joinAll(waiting, failures);
+		received.checkExactlyOnce(BLOCKING_CAPACITY);
+
+		// removeInto() and clear() wake every producer that now has space
+		for (int round = 0; round < 2; round++) {
+			b = create.get();
+			Blocking putting = b;
+			putting.addAll(values, 0, values.length);
+			waiting.clear();
+			for (int p = 0; p < BLOCKING_CAPACITY; p++) {
+				int value = BLOCKING_CAPACITY + p;
+				waiting.add(start(() -> {
+					try {
+						putting.put(value);
+					} catch (InterruptedException e) {
+						throw new IllegalStateException("producer interrupted", e);
+					}
+				}, failures));
+			}
+			awaitParked(waiting);
+			if (round == 0) {
+				if (b.removeInto(new int[BLOCKING_CAPACITY], BLOCKING_CAPACITY) != BLOCKING_CAPACITY) {
+					throw new IllegalStateException("removeInto() did not empty a full structure");
+				}
+			} else {
+				b.clear();
+			}
+			joinAll(waiting, failures);
+			if (b.size() != BLOCKING_CAPACITY) {
+				throw new IllegalStateException("expected the " + BLOCKING_CAPACITY + " woken puts, found " + b.size());
+			}
+		}
+	}
+
+	private static void awaitParked(List<Thread> threads) throws InterruptedException {
+		/*
+		 * Waits until every thread is parked (in take() or put()), so the next call has to wake them.
+		 */
+		awaitCondition(() -> threads.stream().allMatch(t -> t.getState() == Thread.State.WAITING), "threads to park");
+	}
+
+	private static void awaitCondition(BooleanSupplier condition, String what) throws InterruptedException {
+		/*
+		 * Waits until condition is true. Throws IllegalStateException after DEADLINE_MILLIS, which means a waiting
+		 * thread was never woken up.
+		 */
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEADLINE_MILLIS);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() - deadline > 0) {
+				throw new IllegalStateException("timed out waiting for " + what + ", a wakeup was lost");
+			}
+			Thread.sleep(1);
+		}
+	}
+
+	private static void checkDecreasing(int[] values, int perProducer, int producers, String where) {
+		/*
+		 * Checks that the values of every producer appear in decreasing order in values, the order a Stack pops them.
+		 */
+		int[] last = new int[producers];
+		Arrays.fill(last, Integer.MAX_VALUE);
+		for (int value : values) {
+			int producer = value / perProducer;
+			if (value >= last[producer]) {
+				throw new IllegalStateException(where + ": " + value + " came after " + last[producer]
+						+ ", which producer " + producer + " pushed before it");
+			}
+			last[producer] = value;
+		}
+	}
+
+	static void runAll(List<Runnable> work) throws InterruptedException {
+		/*
+		 * Starts one thread per task, releases them all at once, and waits for every one to finish.
+		 * Rethrows the first failure of any thread.
+		 */
+		CountDownLatch go = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		List<Throwable> failures = new ArrayList<>();
+		for (Runnable task : work) {
+			threads.add(start(() -> {
+				try {
+					go.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				task.run();
+			}, failures));
+		}
+		go.countDown();
+		joinAll(threads, failures);
+	}
+
+	private static Thread start(Runnable task, List<Throwable> failures) {
+		/*
+		 * Starts a thread that runs task and adds its failure, if any, to failures.
+		 * It is a daemon, so a thread left waiting by a failed check does not keep the JVM alive.
+		 */
+		Thread t = new Thread(task);
+		t.setDaemon(true);
+		t.setUncaughtExceptionHandler((thread, e) -> {
+			synchronized (failures) {
+				failures.add(e);
+			}
+		});
+		t.start();
+		return t;
+	}
+
+	private static void joinAll(List<Thread> threads, List<Throwable> failures) throws InterruptedException {
+		/*
+		 * Waits for every thread until DEADLINE_MILLIS, then rethrows the first failure of any of them.
+		 * Throws IllegalStateException if a thread is still running, which means it was never woken up.
+		 */
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEADLINE_MILLIS);
+		for (Thread t : threads) {
+			t.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+			if (t.isAlive()) {
+				throw new IllegalStateException("a thread is still waiting after " + DEADLINE_MILLIS + " ms, a wakeup was lost");
+			}
+		}
+		synchronized (failures) {
+			if (!failures.isEmpty()) {
+				throw new IllegalStateException("a thread failed", failures.get(0));
+			}
+		}
+	}
+
+	static final class IntList {
+		/*
+		 * The values one consumer received, in the order it received them.
+		 */
+		private int[] values = new int[1024];
+		private int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size] = value;
+			size += 1;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+
+	static final class Received {
+		/*
+		 * One IntList per consumer, so consumers record without sharing anything,
+		 * and checkExactlyOnce() over all of them once the threads are done.
+		 */
+		private final IntList[] parts;
+
+		Received(int consumers) {
+			parts = new IntList[consumers];
+			for (int i = 0; i < consumers; i++) {
+				parts[i] = new IntList();
+			}
+		}
+
+		IntList part(int consumer) {
+			return parts[consumer];
+		}
+
+		int count() {
+			int ret = 0;
+			for (IntList part : parts) {
+				ret += part.size;
+			}
+			return ret;
+		}
+
+		void checkExactlyOnce(int total) {
+			/*
+			 * Checks that the consumers together received every value from 0 to total - 1 exactly once.
+			 */
+			checkExactlyOnce(total, null);
+		}
+
+		void checkExactlyOnce(int total, Received sent) {
+			/*
+			 * Checks that the consumers together received every value in sent exactly once, and nothing else.
+			 * With sent null, every value from 0 to total - 1 was sent.
+			 */
+			byte[] expected = new byte[total];
+			if (sent == null) {
+				Arrays.fill(expected, (byte) 1);
+			} else {
+				for (IntList part : sent.parts) {
+					for (int i = 0; i < part.size; i++) {
+						expected[part.values[i]] = 1;
+					}
+				}
+			}
+			byte[] seen = new byte[total];
+			for (IntList part : parts) {
+				for (int i = 0; i < part.size; i++) {
+					int value = part.values[i];
+					if (value < 0 || value >= total || expected[value] == 0) {
+						throw new IllegalStateException("received " + value + ", which was never added");
+					}
+					if (seen[value] != 0) {
+						throw new IllegalStateException("received " + value + " twice");
+					}
+					seen[value] = 1;
+				}
+			}
+			for (int value = 0; value < total; value++) {
+				if (seen[value] != expected[value]) {
+					throw new IllegalStateException("lost " + value);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,390 @@
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+/*
+ * Author: Khanh Nguyen
+ * File: UnrolledListQueue.java
+ * Purpose: This file implement the UnrolledListQueue Class that implements QueueInterface.
+ * 			UnrolledListQueue is the unrolled version of ListQueue: it is still a linked list that grows one node at a time
+ * 			and never copies its elements, but every node (a Chunk) holds an int Array of chunkSize elements instead of a single int.
+ * 			Elements are added at the tail offset of the last Chunk and removed at the head offset of the first Chunk,
+ * 			so the Queue follows one pointer per chunkSize elements instead of one per element, and uses about 4 bytes per
+ * 			element instead of a whole Node object.
+ * 			A Chunk that has been fully dequeued goes to a small pool, and the next Chunk the Queue needs is taken from
+ * 			the pool, so a Queue that stays around the same size stops allocating.
+ * Methods: The basic methods for a Queue is implemented, including dequeue(); enqueue(); peek();isEmpty(); size(); clear() and toString();
+ * 			plus enqueueAll() and drainTo(), which copy whole runs of a Chunk with System.arraycopy.
+ * This class also overrides Java equals(Object) method to accurately compare UnrolledListQueues.
+ * Hashing: hashCode() is a SequenceHash of the elements, kept up to date by every enqueue and dequeue, so it is O(1).
+ * 			equals() rejects Queues of a different size or hash right away, and is true for an UnrolledListQueue,
+ * 			an ArrayQueue or a ListQueue holding the same elements in the same order.
+ * 			iterator() reads the elements from front to back without removing them.
+ * Text: toString() and appendTo() write the elements through iterator(), one at a time, and appendTo() can stop after
+ * 			a given number of elements. toArray() copies each Chunk out with one System.arraycopy.
+ */
+public class UnrolledListQueue implements QueueInterface {
+
+	private static final int DEFAULT_CHUNK_SIZE = 256;
+	private static final int DEFAULT_POOL_LIMIT = 4;
+
+	private final int chunkSize;
+	private final int poolLimit;
+	private Chunk headChunk;
+	private Chunk tailChunk;
+	private int size;
+	// SequenceHash of the elements, and SequenceHash.BASE to the power of size
+	private int hash;
+	private int power = 1;
+	private Chunk pool;
+	private int poolCount;
+
+	private static class Chunk {
+		/*
+		 * This class implements the nodes of the unrolled list.
+		 * The elements of the Chunk are items[head] to items[tail - 1].
+		 */
+		final int[] items;
+		int head;
+		int tail;
+		Chunk next;
+
+		Chunk(int chunkSize) {
+			this.items = new int[chunkSize];
+		}
+	}
+
+	public UnrolledListQueue() {
+		/*
+		 * Initialize a new empty UnrolledListQueue object with Chunks of 256 elements.
+		 */
+		this(DEFAULT_CHUNK_SIZE, DEFAULT_POOL_LIMIT);
+	}
+
+	public UnrolledListQueue(int chunkSize, int poolLimit) {
+		/*
+		 * Initialize a new empty UnrolledListQueue object
+		 * Argument chunkSize -- is the number of elements per Chunk, between 64 and 1024 works well.
+		 * Argument poolLimit -- is the maximum number of empty Chunks kept for reuse, 0 disables the pool.
+		 */
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("chunkSize must be positive");
+		}
+		if (poolLimit < 0) {
+			throw new IllegalArgumentException("poolLimit must not be negative");
+		}
+		this.chunkSize = chunkSize;
+		this.poolLimit = poolLimit;
+		this.headChunk = new Chunk(chunkSize);
+		this.tailChunk = headChunk;
+		this.size = 0;
+	}
+
+	public UnrolledListQueue(UnrolledListQueue old) {
+		/*
+		 * This constructor creates a deep copy of an UnrolledListQueue object.
+		 * The elements are copied Chunk by Chunk with System.arraycopy, packed into full Chunks.
+		 */
+		this(old.chunkSize, old.poolLimit);
+		for (Chunk chunk = old.headChunk; chunk != null; chunk = chunk.next) {
+			enqueueAll(chunk.items, chunk.head, chunk.tail - chunk.head);
+		}
+	}
+
+	private Chunk newChunk() {
+		/*
+		 * Helper function
+		 * Returns an empty Chunk, from the pool when it has one.
+		 */
+		if (pool == null) {
+			return new Chunk(chunkSize);
+		}
+		Chunk chunk = pool;
+		pool = chunk.next;
+		poolCount -= 1;
+		chunk.next = null;
+		return chunk;
+	}
+
+	private void addChunk() {
+		/*
+		 * Helper function
+		 * Links an empty Chunk after the last Chunk.
+		 */
+		Chunk chunk = newChunk();
+		tailChunk.next = chunk;
+		tailChunk = chunk;
+	}
+
+	private void removeHeadChunk() {
+		/*
+		 * Helper function, only called when the first Chunk is fully dequeued.
+		 * If it is also the last Chunk it is simply reset, otherwise it is unlinked and goes to the pool if there is room.
+		 */
+		Chunk chunk = headChunk;
+		if (chunk == tailChunk) {
+			chunk.head = 0;
+			chunk.tail = 0;
+			return;
+		}
+		headChunk = chunk.next;
+		if (poolCount < poolLimit) {
+			chunk.head = 0;
+			chunk.tail = 0;
+			chunk.next = pool;
+			pool = chunk;
+			poolCount += 1;
+		}
+	}
+
+	@Override
+	public void enqueue(int value) {
+		/*
+		 * This method adds a new element to the end of the Queue.
+		 * Argument int value -- is the value of the new element to be added.
+		 */
+		if (tailChunk.tail == chunkSize) {
+			addChunk();
+		}
+		tailChunk.items[tailChunk.tail] = value;
+		tailChunk.tail += 1;
+		size += 1;
+		hash += SequenceHash.term(value) * power;
+		power *= SequenceHash.BASE;
+	}
+
+	@Override
+	public void enqueueAll(int[] src, int off, int len) {
+		/*
+		 * This method adds len elements of src, starting at index off, to the end of the Queue in order.
+		 * Each Chunk is filled with one System.arraycopy.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		int copied = 0;
+		while (copied < len) {
+			if (tailChunk.tail == chunkSize) {
+				addChunk();
+			}
+			int n = Math.min(len - copied, chunkSize - tailChunk.tail);
+			System.arraycopy(src, off + copied, tailChunk.items, tailChunk.tail, n);
+			tailChunk.tail += n;
+			copied += n;
+		}
+		size += len;
+		for (int i = off; i < off + len; i++) {
+			hash += SequenceHash.term(src[i]) * power;
+			power *= SequenceHash.BASE;
+		}
+	}
+
+	@Override
+	public int dequeue() {
+		/*
+		 * This method removes the element at the start of the Queue
+		 * Returns the value of the removed element
+		 * If empty Queue, returns -1 and do nothing
+		 */
+		if (isEmpty()) {
+			return -1;
+		}
+		int ret = headChunk.items[headChunk.head];
+		headChunk.head += 1;
+		size -= 1;
+		hash = (hash - SequenceHash.term(ret)) * SequenceHash.INVERSE;
+		power *= SequenceHash.INVERSE;
+		if (headChunk.head == headChunk.tail) {
+			removeHeadChunk();
+		}
+		return ret;
+	}
+
+	@Override
+	public int drainTo(int[] dst, int max) {
+		/*
+		 * This method removes up to max elements from the start of the Queue and stores them in order at the start of dst.
+		 * Returns the number of elements removed.
+		 * Each Chunk is emptied with one System.arraycopy.
+		 */
+		int n = Math.max(0, Math.min(Math.min(max, dst.length), size));
+		int copied = 0;
+		while (copied < n) {
+			int run = Math.min(n - copied, headChunk.tail - headChunk.head);
+			System.arraycopy(headChunk.items, headChunk.head, dst, copied, run);
+			headChunk.head += run;
+			copied += run;
+			if (headChunk.head == headChunk.tail) {
+				removeHeadChunk();
+			}
+		}
+		size -= n;
+		for (int i = 0; i < n; i++) {
+			hash = (hash - SequenceHash.term(dst[i])) * SequenceHash.INVERSE;
+			power *= SequenceHash.INVERSE;
+		}
+		return n;
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * peek() returns the value of the front element in the Queue.
+		 * If empty Queue, returns -1.
+		 * This method does not alter the Queue in any way.
+		 */
+		if (isEmpty()) {
+			return -1;
+		}
+		return headChunk.items[headChunk.head];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the Queue is empty
+		 * returns false otherwise
+		 */
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in the Queue
+		 * if empty Queue, returns 0.
+		 */
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears all element from the Queue.
+		 * The first Chunk is kept and reset, the others are dropped.
+		 */
+		headChunk.head = 0;
+		headChunk.tail = 0;
+		headChunk.next = null;
+		tailChunk = headChunk;
+		size = 0;
+		hash = 0;
+		power = 1;
+	}
+
+	public PrimitiveIterator.OfInt iterator() {
+		/*
+		 * iterator() returns an iterator over the elements, from the front of the Queue to the back.
+		 * The Queue must not be changed while it is being iterated.
+		 */
+		return new PrimitiveIterator.OfInt() {
+			private Chunk chunk = headChunk;
+			private int index = headChunk.head;
+			private int remaining = size;
+
+			@Override
+			public boolean hasNext() {
+				return remaining > 0;
+			}
+
+			@Override
+			public int nextInt() {
+				if (remaining == 0) {
+					throw new NoSuchElementException();
+				}
+				while (index == chunk.tail) {
+					chunk = chunk.next;
+					index = chunk.head;
+				}
+				remaining -= 1;
+				index += 1;
+				return chunk.items[index - 1];
+			}
+		};
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the Queue
+		 * The format is similar to how an Array is represented in String.
+		 */
+		return ElementFormat.toString(iterator());
+	}
+
+	@Override
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() writes at most limit elements to out, from front to back, in the toString() format.
+		 * The Chunks are read in place, so nothing is copied first.
+		 */
+		ElementFormat.appendTo(out, iterator(), limit);
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from front to back, the order dequeue() would return them.
+		 */
+		int[] ret = new int[size];
+		int copied = 0;
+		for (Chunk chunk = headChunk; chunk != null; chunk = chunk.next) {
+			System.arraycopy(chunk.items, chunk.head, ret, copied, chunk.tail - chunk.head);
+			copied += chunk.tail - chunk.head;
+		}
+		return ret;
+	}
+
+	@Override
+	public boolean equals(Object queue2) {
+		/*
+		 * This method overrides Java equals(Object) method to accurately compares 2 Queues.
+		 * If the argument is not an instance of UnrolledListQueue, ArrayQueue or ListQueue, returns false.
+		 *
+		 * If both Queue has all the same elements in the same order, returns true.
+		 * Returns false otherwise
+		 * The two Queues may split their elements into Chunks differently, so each side keeps its own Chunk and offset.
+		 * Queues of different sizes or hashes are rejected without looking at any element.
+		 */
+		if (queue2 instanceof ArrayQueue || queue2 instanceof ListQueue) {
+			QueueInterface other = (QueueInterface) queue2;
+			PrimitiveIterator.OfInt elements2 = queue2 instanceof ArrayQueue
+					? ((ArrayQueue) queue2).iterator() : ((ListQueue) queue2).iterator();
+			return SequenceHash.sameElements(size, hash, iterator(), other.size(), queue2.hashCode(), elements2);
+		}
+		if (!(queue2 instanceof UnrolledListQueue)) {
+			return false;
+		}
+		UnrolledListQueue other = (UnrolledListQueue) queue2;
+		if (size != other.size || hash != other.hash) {
+			return false;
+		}
+		Chunk chunk1 = headChunk;
+		Chunk chunk2 = other.headChunk;
+		int i1 = chunk1.head;
+		int i2 = chunk2.head;
+		for (int n = 0; n < size; n++) {
+			while (i1 == chunk1.tail) {
+				chunk1 = chunk1.next;
+				i1 = chunk1.head;
+			}
+			while (i2 == chunk2.tail) {
+				chunk2 = chunk2.next;
+				i2 = chunk2.head;
+			}
+			if (chunk1.items[i1] != chunk2.items[i2]) {
+				return false;
+			}
+			i1 += 1;
+			i2 += 1;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		/*
+		 * hashCode() returns the SequenceHash of the elements, from front to back. It is O(1).
+		 */
+		return hash;
+	}
+
+}
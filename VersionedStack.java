@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/*
+ * Author: Khanh Nguyen
+ * File: VersionedStack.java
+ * Purpose: This file implement the VersionedStack Class that implements StackInterface.
+ * 			VersionedStack is a mutable Stack over a PersistentStack: every push() and pop() replaces the current
+ * 			version with the one PersistentStack returns, so it can be used wherever a StackInterface is expected.
+ * 			snapshot() returns the current version in O(1), and restore() goes back to any version in O(1),
+ * 			so a backtracking search can save its Stack at every branch point without copying it.
+ * 			The copy constructor is O(1) too: the copy starts from the same version, and the two Stacks share their
+ * 			Nodes until one of them pops below the other.
+ * Methods: The basic methods for a Stack is implemented, including pop(); push(); peek();isEmpty(); size(); clear() and toString();
+ * 			plus snapshot() and restore(), pushAll(), toArray(), appendTo(), forEach() and iterator().
+ * 			Every push() allocates one Node; pop() allocates nothing. A popped Node is only freed once no version uses it.
+ * This class also overrides Java equals(Object) method to accurately compare VersionedStacks, and is equal to an
+ * ArrayStack or ListStack holding the same elements in the same order.
+ * hashCode() is O(1), and is the same as the hashCode() of an ArrayStack or ListStack with the same elements.
+ */
+public class VersionedStack implements StackInterface {
+
+	private PersistentStack current;
+
+	public VersionedStack() {
+		/*
+		 * Constructor
+		 * Initialize an empty VersionedStack object.
+		 */
+		this.current = PersistentStack.empty();
+	}
+
+	public VersionedStack(PersistentStack version) {
+		/*
+		 * Constructor
+		 * Initialize a VersionedStack object that starts from the given version, in O(1).
+		 */
+		this.current = Objects.requireNonNull(version);
+	}
+
+	public VersionedStack(VersionedStack old) {
+		/*
+		 * Copy constructor
+		 * takes a VersionedStack as argument and initialize a new VersionedStack with the same elements, in O(1).
+		 * The versions can not change, so sharing them is as safe as a deep copy: later pushes and pops on either
+		 * Stack do not affect the other.
+		 */
+		this.current = old.current;
+	}
+
+	public PersistentStack snapshot() {
+		/*
+		 * snapshot() returns the current version, in O(1). Later pushes and pops do not change it.
+		 */
+		return current;
+	}
+
+	public void restore(PersistentStack version) {
+		/*
+		 * restore() makes the given version the current one, in O(1).
+		 */
+		this.current = Objects.requireNonNull(version);
+	}
+
+	@Override
+	public void push(int value) {
+		/*
+		 * push() adds a new element to the top of the Stack, in O(1).
+		 * Argument int value -- is the value of the new element to be added.
+		 */
+		current = current.push(value);
+	}
+
+	@Override
+	public void pushAll(int[] src, int off, int len) {
+		/*
+		 * pushAll() pushes len elements of src, starting at index off, so src[off + len - 1] ends up on top.
+		 */
+		current = current.pushAll(src, off, len);
+	}
+
+	@Override
+	public int pop() {
+		/*
+		 * pop() removes the top element of the Stack and returns its value, in O(1).
+		 * If empty Stack, returns -1 and do nothing.
+		 */
+		int ret = current.peek();
+		current = current.pop();
+		return ret;
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * peek() returns the value of the top element of the Stack.
+		 * If empty Stack, returns -1.
+		 */
+		return current.peek();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the Stack is empty
+		 * returns false otherwise
+		 */
+		return current.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in the Stack, in O(1).
+		 */
+		return current.size();
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears all element from the Stack, in O(1). Snapshots taken before are not affected.
+		 */
+		current = PersistentStack.empty();
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from top to bottom, the order pop() would return them.
+		 */
+		return current.toArray();
+	}
+
+	@Override
+	public void appendTo(Appendable out, int limit) throws IOException {
+		/*
+		 * appendTo() writes at most limit elements to out in the toString() format, from bottom to top.
+		 */
+		current.appendTo(out, limit);
+	}
+
+	public void forEach(IntConsumer action) {
+		/*
+		 * forEach() calls action on every element, from the top of the Stack to the bottom.
+		 */
+		current.forEach(action);
+	}
+
+	public PrimitiveIterator.OfInt iterator() {
+		/*
+		 * iterator() returns an iterator over the current version, from the top of the Stack to the bottom.
+		 * It keeps reading that version even if the Stack is changed while it is being iterated.
+		 */
+		return current.iterator();
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the Stack
+		 * The format is similar to how an Array is represented in String.
+		 */
+		return current.toString();
+	}
+
+	@Override
+	public boolean equals(Object stack2) {
+		/*
+		 * This method overrides Java equals(Object) method to accurately compares 2 VersionedStacks.
+		 * If the argument is not an instance of VersionedStack, ArrayStack or ListStack, returns false.
+		 *
+		 * If both Stack has all the same elements in the same order, returns true.
+		 * Returns false otherwise
+		 * Two VersionedStacks are compared with PersistentStack.equals(); an ArrayStack or a ListStack is compared
+		 * through both iterators, after checking the sizes and hashes.
+		 */
+		if (stack2 instanceof VersionedStack) {
+			return current.equals(((VersionedStack) stack2).current);
+		}
+		if (stack2 instanceof ArrayStack) {
+			ArrayStack other = (ArrayStack) stack2;
+			return SequenceHash.sameElements(size(), hashCode(), iterator(), other.size(), other.hashCode(), other.iterator());
+		}
+		if (stack2 instanceof ListStack) {
+			ListStack other = (ListStack) stack2;
+			return SequenceHash.sameElements(size(), hashCode(), iterator(), other.size(), other.hashCode(), other.iterator());
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		/*
+		 * hashCode() returns the SequenceHash of the elements, from bottom to top. It is O(1).
+		 */
+		return current.hashCode();
+	}
+
+}
@@ -0,0 +1,322 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+
+/*
+ * Author: Khanh Nguyen
+ * File: WorkStealingDeque.java
+ * Purpose: This file implement the WorkStealingDeque Class that implements StackInterface.
+ * 			WorkStealingDeque is the Chase-Lev work-stealing deque: one owner thread uses it as its own Stack,
+ * 			with push() and pop() at the tail, while any number of other threads (thieves) take the oldest element
+ * 			from the head with steal(). A fork-join scheduler gives every worker one: a worker pushes the tasks it
+ * 			forks and pops the newest one (good for cache locality), and an idle worker steals the oldest task of
+ * 			another worker, which is usually the biggest piece of work left.
+ * 			The elements live in a circular int Array indexed by the long counters head and tail (the "top" and
+ * 			"bottom" of the Chase-Lev paper), so the Array length is a power of two and wrapping an index is a mask.
+ * 			push() never uses a CAS. pop() only uses one when it takes the last element, since only then can it race
+ * 			with a thief; otherwise it costs one full fence. steal() uses one CAS on head, and retries if another
+ * 			thief or the owner took the element first, so it is lock-free.
+ * 			When the Array is full, the owner copies the elements to an Array twice the size and publishes it;
+ * 			the old Array is never written again, so a thief still reading it gets the right element.
+ * 			The memory orderings follow "Correct and Efficient Work-Stealing for Weak Memory Models" (Le et al.),
+ * 			with VarHandle release/acquire accesses and full fences in place of the C11 atomics.
+ * Methods: The basic methods for a Stack is implemented, including pop(); push(); peek();isEmpty(); size(); clear() and toString();
+ * 			plus steal() and pushAll(), which publishes a whole batch with one release write.
+ * 			push(), pop(), peek(), pushAll(), popInto() and clear() must only be called by the owner thread.
+ * 			steal(), size(), isEmpty(), toArray() and toString() can be called from any thread; the last four only give
+ * 			a snapshot.
+ * The head and tail counters are kept on separate cache lines (see the padding classes below), so thieves do not
+ * invalidate the owner's cache line until they actually steal.
+ */
+public class WorkStealingDeque extends WorkStealingDequePad2 implements StackInterface {
+
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	public WorkStealingDeque() {
+		/*
+		 * Constructor
+		 * Initialize an empty WorkStealingDeque object. The underlying Array starts at size 64.
+		 */
+		this(64);
+	}
+
+	public WorkStealingDeque(int initialCapacity) {
+		/*
+		 * Constructor
+		 * Initialize an empty WorkStealingDeque object.
+		 * Argument initialCapacity -- is the starting size of the underlying Array, rounded up to a power of two.
+		 * 			The Array doubles whenever it is full.
+		 */
+		if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("initialCapacity must be between 1 and 2^30");
+		}
+		setItems(new int[initialCapacity <= 1 ? 1 : Integer.highestOneBit(initialCapacity - 1) << 1]);
+	}
+
+	public int capacity() {
+		/*
+		 * Returns the size of the underlying Array.
+		 */
+		return getItems().length;
+	}
+
+	private int[] grow(int[] old, long head, long tail, int minCapacity) {
+		/*
+		 * Helper function, owner only.
+		 * Copies the elements from head to tail - 1 to an Array at least twice the size, at the same positions
+		 * modulo its length, and publishes it. Returns the new Array.
+		 */
+		if (minCapacity > MAX_CAPACITY) {
+			throw new OutOfMemoryError("WorkStealingDeque can not hold " + minCapacity + " elements");
+		}
+		int length = old.length * 2;
+		while (length < minCapacity) {
+			length *= 2;
+		}
+		int[] ret = new int[length];
+		int oldMask = old.length - 1;
+		int mask = length - 1;
+		for (long i = head; i < tail; i++) {
+			ret[(int) i & mask] = old[(int) i & oldMask];
+		}
+		setItems(ret);
+		return ret;
+	}
+
+	@Override
+	public void push(int value) {
+		/*
+		 * push() adds a new element at the tail (the top of the owner's Stack), in O(1) and without a CAS.
+		 * Argument int value -- is the value of the new element to be added.
+		 * The element is written first and the new tail is published with a release write,
+		 * so a thief that sees the new tail also sees the element.
+		 */
+		long t = tail;
+		int[] a = items;
+		long h = getHead();
+		if (t - h >= a.length) {
+			a = grow(a, h, t, a.length + 1);
+		}
+		a[(int) t & (a.length - 1)] = value;
+		setTail(t + 1);
+	}
+
+	@Override
+	public void pushAll(int[] src, int off, int len) {
+		/*
+		 * pushAll() pushes len elements of src, starting at index off, so src[off + len - 1] ends up on top.
+		 * The Array grows at most once and the whole batch is published with a single release write of tail.
+		 */
+		Objects.checkFromIndexSize(off, len, src.length);
+		long t = tail;
+		int[] a = items;
+		long h = getHead();
+		if (t - h + len > a.length) {
+			a = grow(a, h, t, (int) Math.min(t - h + len, MAX_CAPACITY + 1L));
+		}
+		int mask = a.length - 1;
+		for (int i = 0; i < len; i++) {
+			a[(int) (t + i) & mask] = src[off + i];
+		}
+		setTail(t + len);
+	}
+
+	@Override
+	public int pop() {
+		/*
+		 * pop() removes the newest element (the top of the owner's Stack) and returns its value.
+		 * If empty Stack, or if a thief takes the last element first, returns -1 and do nothing.
+		 * The tail is moved down before head is read, with a full fence in between, so a thief either sees the
+		 * smaller tail and leaves the element alone, or wins it and the owner sees the larger head.
+		 * Only the last element can be wanted by both, and only then is there a CAS on head.
+		 */
+		long t = tail - 1;
+		int[] a = items;
+		setTailOpaque(t);
+		VarHandle.fullFence();
+		long h = getHead();
+		if (h > t) {
+			// empty, put tail back
+			setTailOpaque(t + 1);
+			return -1;
+		}
+		int ret = a[(int) t & (a.length - 1)];
+		if (h == t) {
+			// the last element: take it from the thieves' end too, as a thief would
+			boolean won = casHead(h, h + 1);
+			setTailOpaque(t + 1);
+			return won ? ret : -1;
+		}
+		return ret;
+	}
+
+	public int steal() {
+		/*
+		 * steal() removes the oldest element (the bottom of the owner's Stack) and returns its value.
+		 * Can be called by any thread. If empty, returns -1 and do nothing.
+		 * Retries if another thief or the owner takes the element first, so -1 always means the deque was seen empty.
+		 */
+		while (true) {
+			long h = getHead();
+			VarHandle.fullFence();
+			long t = getTail();
+			if (h >= t) {
+				return -1;
+			}
+			int[] a = getItems();
+			int ret = a[(int) h & (a.length - 1)];
+			if (casHead(h, h + 1)) {
+				return ret;
+			}
+		}
+	}
+
+	@Override
+	public int peek() {
+		/*
+		 * peek() returns the value of the newest element, the one pop() would return.
+		 * If empty Stack, returns -1.
+		 * If a thief steals at the same time, the returned element may already be gone.
+		 */
+		long t = tail;
+		if (getHead() >= t) {
+			return -1;
+		}
+		int[] a = items;
+		return a[(int) (t - 1) & (a.length - 1)];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * isEmpty() returns true if the deque is empty
+		 * returns false otherwise
+		 */
+		return size() == 0;
+	}
+
+	@Override
+	public int size() {
+		/*
+		 * size() returns the number of elements in the deque.
+		 * The head is read before the tail, so the result is never negative.
+		 */
+		long h = getHead();
+		long t = getTail();
+		return (int) Math.max(t - h, 0);
+	}
+
+	@Override
+	public void clear() {
+		/*
+		 * clear() clears all element from the deque, by popping them one by one,
+		 * so thieves stealing at the same time still get each element at most once.
+		 */
+		while (!isEmpty()) {
+			pop();
+		}
+	}
+
+	@Override
+	public int[] toArray() {
+		/*
+		 * toArray() returns a new Array with the elements from newest to oldest, the order pop() would return them.
+		 */
+		long h = getHead();
+		long t = getTail();
+		int[] a = getItems();
+		int[] ret = new int[(int) Math.max(t - h, 0)];
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = a[(int) (t - 1 - i) & (a.length - 1)];
+		}
+		return ret;
+	}
+
+	public String toString() {
+		/*
+		 * This method returns the String representation of the deque, from oldest to newest (bottom to top).
+		 * The format is similar to how an Array is represented in String.
+		 */
+		return ElementFormat.toString(ElementFormat.reversed(toArray()));
+	}
+
+}
+
+/*
+ * The classes below only exist to lay out the owner fields and the thieves' head counter of WorkStealingDeque on their
+ * own cache lines, the same way as for ConcurrentArrayQueue.
+ */
+abstract class WorkStealingDequePad0 {
+	long p00, p01, p02, p03, p04, p05, p06, p07;
+	long p08, p09, p10, p11, p12, p13, p14, p15;
+}
+
+abstract class WorkStealingDequeOwner extends WorkStealingDequePad0 {
+
+	private static final VarHandle TAIL;
+	private static final VarHandle ITEMS;
+	static {
+		try {
+			TAIL = MethodHandles.lookup().findVarHandle(WorkStealingDequeOwner.class, "tail", long.class);
+			ITEMS = MethodHandles.lookup().findVarHandle(WorkStealingDequeOwner.class, "items", int[].class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	// written only by the owner, which also reads both fields directly
+	long tail;
+	int[] items;
+
+	final long getTail() {
+		return (long) TAIL.getAcquire(this);
+	}
+
+	final void setTail(long value) {
+		TAIL.setRelease(this, value);
+	}
+
+	final void setTailOpaque(long value) {
+		TAIL.setOpaque(this, value);
+	}
+
+	final int[] getItems() {
+		return (int[]) ITEMS.getAcquire(this);
+	}
+
+	final void setItems(int[] value) {
+		ITEMS.setRelease(this, value);
+	}
+}
+
+abstract class WorkStealingDequePad1 extends WorkStealingDequeOwner {
+	long p20, p21, p22, p23, p24, p25, p26, p27;
+	long p28, p29, p30, p31, p32, p33, p34, p35;
+}
+
+abstract class WorkStealingDequeHead extends WorkStealingDequePad1 {
+
+	private static final VarHandle HEAD;
+	static {
+		try {
+			HEAD = MethodHandles.lookup().findVarHandle(WorkStealingDequeHead.class, "head", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private volatile long head;
+
+	final long getHead() {
+		return (long) HEAD.getAcquire(this);
+	}
+
+	final boolean casHead(long expected, long next) {
+		return HEAD.compareAndSet(this, expected, next);
+	}
+}
+
+abstract class WorkStealingDequePad2 extends WorkStealingDequeHead {
+	long p40, p41, p42, p43, p44, p45, p46, p47;
+	long p48, p49, p50, p51, p52, p53, p54, p55;
+}